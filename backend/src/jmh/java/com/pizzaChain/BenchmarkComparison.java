@@ -0,0 +1,69 @@
+package com.pizzaChain;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files (-rf json), e.g. the committed baseline and a fresh run:
+ * <pre>
+ *   mvn -Pbenchmark -q test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.pizzaChain.BenchmarkComparison \
+ *       -Dexec.args="src/jmh/baseline.json target/jmh-results.json"
+ * </pre>
+ * A change is flagged only when the two scores' 99.9% error intervals do not overlap.
+ */
+public class BenchmarkComparison {
+
+    private record Score(double value, double error, String unit) {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: BenchmarkComparison <baseline.json> <current.json>");
+            System.exit(2);
+        }
+        Map<String, Score> baseline = read(new File(args[0]));
+        Map<String, Score> current = read(new File(args[1]));
+
+        System.out.printf("%-90s %14s %14s %9s%n", "Benchmark", "baseline", "current", "change");
+        for (Map.Entry<String, Score> entry : new TreeMap<>(current).entrySet()) {
+            Score now = entry.getValue();
+            Score before = baseline.get(entry.getKey());
+            if (before == null || !before.unit().equals(now.unit())) {
+                System.out.printf("%-90s %14s %14s %9s%n", entry.getKey(), "-", format(now), "new");
+                continue;
+            }
+            double change = (now.value() - before.value()) / before.value() * 100;
+            boolean significant = Math.abs(now.value() - before.value()) > now.error() + before.error();
+            System.out.printf("%-90s %14s %14s %+8.1f%%%s%n", entry.getKey(), format(before), format(now), change,
+                    significant ? (lowerIsBetter(now.unit()) == change < 0 ? "  faster" : "  SLOWER") : "");
+        }
+    }
+
+    private static Map<String, Score> read(File file) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            StringBuilder name = new StringBuilder(run.path("benchmark").asText().replace("com.pizzaChain.", ""));
+            run.path("params").properties().forEach(param ->
+                    name.append(' ').append(param.getKey()).append('=').append(param.getValue().asText()));
+            JsonNode metric = run.path("primaryMetric");
+            double error = metric.path("scoreError").asDouble();
+            scores.put(name.toString(), new Score(metric.path("score").asDouble(),
+                    Double.isNaN(error) ? 0 : error, metric.path("scoreUnit").asText()));
+        }
+        return scores;
+    }
+
+    private static boolean lowerIsBetter(String unit) {
+        return unit.endsWith("/op");
+    }
+
+    private static String format(Score score) {
+        return String.format("%.1f %s", score.value(), score.unit());
+    }
+}
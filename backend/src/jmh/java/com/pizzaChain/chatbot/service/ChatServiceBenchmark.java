@@ -0,0 +1,63 @@
+package com.pizzaChain.chatbot.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pizzaChain.chatbot.dto.ChatRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local CPU around an OpenAI call: building and serializing the request body, and parsing a
+ * completion. Network, cache and breaker are not involved, so ChatService gets no client.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ChatServiceBenchmark {
+
+    // Shape of a real chat.completions response
+    private static final String COMPLETION = """
+            {"id":"chatcmpl-9x2","object":"chat.completion","created":1718000000,"model":"gpt-3.5-turbo-0125",
+             "choices":[{"index":0,"message":{"role":"assistant","content":"  We have Margherita, Pepperoni, Hawaiian and Meat Lovers, all made fresh daily. Small pizzas start at $12. Would you like to order one?  "},
+             "logprobs":null,"finish_reason":"stop"}],
+             "usage":{"prompt_tokens":52,"completion_tokens":31,"total_tokens":83},"system_fingerprint":null}
+            """;
+
+    private ObjectMapper objectMapper;
+    private ChatService chatService;
+    private ChatRequest request;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        chatService = new ChatService(null, null, null, objectMapper, new SimpleMeterRegistry(), 100, 0.7, Duration.ofSeconds(25));
+        request = new ChatRequest("  What pizzas do you have, and how much is a large pepperoni?  ");
+    }
+
+    /** What OpenAiClient sends: the body map serialized to a JSON string */
+    @Benchmark
+    public String requestBody() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(chatService.buildRequestBody(request, null));
+    }
+
+    @Benchmark
+    public ChatOutcome parseCompletion() {
+        return chatService.parseReply(COMPLETION, null);
+    }
+}
@@ -0,0 +1,76 @@
+package com.pizzaChain.chatbot.service;
+
+import com.pizzaChain.chatbot.dto.ChatRequest;
+import com.pizzaChain.chatbot.dto.ChatResponse;
+import com.pizzaChain.chatbot.intent.FallbackIntentProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fallback replies, against the chain of String.contains checks the intent matcher replaced
+ * (kept here as {@link #legacyContainsAny()} for comparison). "late" matches only the last
+ * intent and "none" matches nothing, the worst cases for the old chain.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FallbackChatServiceBenchmark {
+
+    private static final Map<String, String> MESSAGES = Map.of(
+            "early", "Hello there, I would like to know more about your restaurant",
+            "late", "Can you tell me when your downtown restaurant will close tonight",
+            "none", "My colleague recommended your restaurant to me last week and I was wondering about it");
+
+    @Param({"early", "late", "none"})
+    private String message;
+
+    private FallbackChatService fallbackChatService;
+    private ChatRequest request;
+
+    @Setup
+    public void setUp() {
+        fallbackChatService = new FallbackChatService(new FallbackIntentProperties(Map.of()));
+        request = new ChatRequest(MESSAGES.get(message));
+    }
+
+    @Benchmark
+    public ChatResponse intentMatcher() {
+        return fallbackChatService.getFallbackResponse(request);
+    }
+
+    @Benchmark
+    public int legacyContainsAny() {
+        String text = request.message().toLowerCase().trim();
+        if (containsAny(text, "hello", "hi", "hey", "greetings", "good morning", "good afternoon", "good evening")) return 0;
+        if (containsAny(text, "menu", "pizza", "pizzas", "what do you have", "options", "choices")) return 1;
+        if (containsAny(text, "order", "buy", "purchase", "want", "get", "take")) return 2;
+        if (containsAny(text, "price", "cost", "how much", "pricing")) return 3;
+        if (containsAny(text, "delivery", "pickup", "location", "address")) return 4;
+        if (containsAny(text, "hours", "open", "close", "time")) return 5;
+        return -1;
+    }
+
+    private static boolean containsAny(String text, String... keywords) {
+        for (String keyword : keywords) {
+            if (text.contains(keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
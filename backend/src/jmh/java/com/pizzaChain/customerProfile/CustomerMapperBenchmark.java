@@ -0,0 +1,55 @@
+package com.pizzaChain.customerProfile;
+
+import com.pizzaChain.customerProfile.dto.CreateCustomerDTO;
+import com.pizzaChain.customerProfile.dto.CustomerDTO;
+import com.pizzaChain.customerProfile.dto.CustomerView;
+import com.pizzaChain.customerProfile.mapper.CustomerMapper;
+import com.pizzaChain.customerProfile.model.Customer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** Per-row mapping cost on the list, search and create paths */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CustomerMapperBenchmark {
+
+    private Customer entity;
+    private CustomerView view;
+    private CreateCustomerDTO createRequest;
+
+    @Setup
+    public void setUp() {
+        entity = CustomerSamples.entity(1);
+        view = CustomerSamples.view(1);
+        createRequest = CustomerSamples.createRequest();
+    }
+
+    @Benchmark
+    public CustomerDTO entityToDto() {
+        return CustomerMapper.toDTO(entity);
+    }
+
+    @Benchmark
+    public CustomerDTO viewToDto() {
+        return CustomerMapper.toDTO(view, CustomerSamples.INTERESTS);
+    }
+
+    @Benchmark
+    public Customer createRequestToEntity() {
+        return CustomerMapper.toEntity(createRequest);
+    }
+}
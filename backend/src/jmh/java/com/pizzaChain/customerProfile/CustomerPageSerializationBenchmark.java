@@ -0,0 +1,67 @@
+package com.pizzaChain.customerProfile;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pizzaChain.customerProfile.dto.CursorPage;
+import com.pizzaChain.customerProfile.dto.CustomerDTO;
+import com.pizzaChain.customerProfile.mapper.CustomerMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response body cost of GET /api/customers (Page) and /api/customers/search (CursorPage),
+ * with an ObjectMapper configured the way Spring Boot configures the MVC one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CustomerPageSerializationBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private Page<CustomerDTO> page;
+    private CursorPage<CustomerDTO> cursorPage;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        List<CustomerDTO> content = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            content.add(CustomerMapper.toDTO(CustomerSamples.entity(i)));
+        }
+        page = new PageImpl<>(content, PageRequest.of(3, pageSize), 10_000);
+        cursorPage = new CursorPage<>(content, pageSize, true, "b3BhcXVlLWN1cnNvcg");
+    }
+
+    @Benchmark
+    public byte[] page() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] cursorPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(cursorPage);
+    }
+}
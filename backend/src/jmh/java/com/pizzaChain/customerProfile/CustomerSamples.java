@@ -0,0 +1,73 @@
+package com.pizzaChain.customerProfile;
+
+import com.pizzaChain.customerProfile.dto.CreateCustomerDTO;
+import com.pizzaChain.customerProfile.dto.CustomerView;
+import com.pizzaChain.customerProfile.model.Customer;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/** Realistic, fully populated customers for the mapper and serialization benchmarks */
+final class CustomerSamples {
+
+    static final List<String> INTERESTS = List.of("pizza", "pasta", "desserts");
+
+    private CustomerSamples() {
+    }
+
+    static Customer entity(int i) {
+        Customer customer = new Customer();
+        customer.setId(UUID.nameUUIDFromBytes(("customer-" + i).getBytes()));
+        customer.setFirstName("Ann" + i);
+        customer.setLastName("Smith");
+        customer.setEmail("ann" + i + "@example.com");
+        customer.setUsername("ann" + i);
+        customer.setPhone("5551234567");
+        customer.setPassword("Secret123");
+        customer.setDob(LocalDate.of(1990, 1, 2));
+        customer.setGender("female");
+        customer.setAddress("12 Main Street");
+        customer.setPostalCode("94103");
+        customer.setCountry("USA");
+        customer.setState("CA");
+        customer.setCity("San Francisco");
+        String photo = "/uploads/cas/ab/cd/abcd" + i;
+        customer.setPhotoPath(photo + ".jpg");
+        customer.setPhotoWebPath(photo + "_web.jpg");
+        customer.setPhotoThumbPath(photo + "_thumb.jpg");
+        customer.setPhotoAvatarPath(photo + "_avatar.jpg");
+        customer.setInterests(INTERESTS);
+        customer.setNewsletter(true);
+        customer.setTerms(true);
+        return customer;
+    }
+
+    static CustomerView view(int i) {
+        Customer c = entity(i);
+        return new CustomerView(c.getId(), c.getFirstName(), c.getLastName(), c.getEmail(), c.getPhone(),
+                c.getUsername(), c.getDob(), c.getGender(), c.getAddress(), c.getPostalCode(), c.getCountry(),
+                c.getState(), c.getCity(), c.getPhotoPath(), c.getPhotoThumbPath(), c.getPhotoAvatarPath(),
+                c.getPhotoWebPath(), true, true);
+    }
+
+    static CreateCustomerDTO createRequest() {
+        CreateCustomerDTO dto = new CreateCustomerDTO();
+        dto.setFirstName("Ann");
+        dto.setLastName("Smith");
+        dto.setEmail("ann@example.com");
+        dto.setPhone("5551234567");
+        dto.setPassword("Secret123");
+        dto.setDob(LocalDate.of(1990, 1, 2));
+        dto.setGender("female");
+        dto.setAddress("12 Main Street");
+        dto.setPostalCode("94103");
+        dto.setCountry("USA");
+        dto.setState("CA");
+        dto.setCity("San Francisco");
+        dto.setInterests(INTERESTS);
+        dto.setNewsletter(true);
+        dto.setTerms(true);
+        return dto;
+    }
+}
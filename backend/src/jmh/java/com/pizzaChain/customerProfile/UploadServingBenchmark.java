@@ -0,0 +1,188 @@
+package com.pizzaChain.customerProfile;
+
+import com.pizzaChain.config.UploadServingConfig;
+import com.pizzaChain.customerProfile.storage.PhotoStorageProperties;
+import com.pizzaChain.customerProfile.storage.PhotoStorageService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.jpa.JpaRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end /uploads/** over HTTP as the customer list page uses it: 50 avatars (~40KB) fetched
+ * cold and revalidated, plus 3MB originals, from 32 concurrent clients. "before" is the plain
+ * addResourceHandlers mapping; "after" is UploadServingConfig. Boots only the web layer, once per
+ * trial. The configs below are deliberately not @Configuration, so component scanning ignores them.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(32)
+@State(Scope.Benchmark)
+public class UploadServingBenchmark {
+
+    private static final int AVATARS = 50;
+    private static final int ORIGINALS = 8;
+
+    @Param({"before", "after"})
+    public String serving;
+
+    private Path dir;
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String base;
+    private List<String> avatars;
+    private List<String> originals;
+    private Map<String, String[]> validators;
+
+    @EnableAutoConfiguration(exclude = {DataSourceAutoConfiguration.class,
+            HibernateJpaAutoConfiguration.class, JpaRepositoriesAutoConfiguration.class})
+    static class Before implements WebMvcConfigurer {
+        @Override
+        public void addResourceHandlers(ResourceHandlerRegistry registry) {
+            registry.addResourceHandler("/uploads/**")
+                    .addResourceLocations("file:" + System.getProperty("uploads.dir") + "/");
+        }
+    }
+
+    @EnableAutoConfiguration(exclude = {DataSourceAutoConfiguration.class,
+            HibernateJpaAutoConfiguration.class, JpaRepositoriesAutoConfiguration.class})
+    @EnableConfigurationProperties(PhotoStorageProperties.class)
+    @Import({PhotoStorageService.class, UploadServingConfig.class})
+    static class After {
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("upload-bench");
+        System.setProperty("uploads.dir", dir.toString());
+        avatars = writeFiles(dir, AVATARS, true);
+        originals = writeFiles(dir, ORIGINALS, false);
+
+        context = new SpringApplication(serving.equals("before") ? Before.class : After.class).run(
+                "--server.port=0", "--spring.config.name=upload-bench", "--uploads.dir=" + dir,
+                "--spring.main.banner-mode=off");
+        base = "http://127.0.0.1:" + ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        validators = validators(avatars);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(dir);
+    }
+
+    /** Customer list rendered for the first time: every avatar in full (200) */
+    @Benchmark
+    public int avatarCold() throws Exception {
+        return fetch(pick(avatars), null, 200);
+    }
+
+    /** Customer list rendered again: the browser revalidates each avatar (304) */
+    @Benchmark
+    public int avatarRevalidate() throws Exception {
+        String path = pick(avatars);
+        return fetch(path, validators.get(path), 304);
+    }
+
+    /** Full-size originals, where sendfile applies (200) */
+    @Benchmark
+    public int original() throws Exception {
+        return fetch(pick(originals), null, 200);
+    }
+
+    private static String pick(List<String> paths) {
+        return paths.get(ThreadLocalRandom.current().nextInt(paths.size()));
+    }
+
+    private int fetch(String path, String[] validator, int expectedStatus) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(base + path));
+        if (validator != null) {
+            request.header(validator[0], validator[1]);
+        }
+        HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != expectedStatus) {
+            throw new IllegalStateException(path + " answered " + response.statusCode() + ", expected " + expectedStatus);
+        }
+        return response.body().length;
+    }
+
+    private static List<String> writeFiles(Path dir, int count, boolean avatars) throws IOException {
+        Path photos = Files.createDirectories(dir.resolve("photos"));
+        Random random = new Random(count);
+        List<String> paths = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String name = UUID.randomUUID() + (avatars ? "_256.jpg" : ".jpg");
+            if (avatars) {
+                // noise compresses badly, which gives a realistically sized avatar
+                BufferedImage image = new BufferedImage(256, 256, BufferedImage.TYPE_INT_RGB);
+                for (int p = 0; p < 256 * 256; p++) {
+                    image.setRGB(p % 256, p / 256, random.nextInt());
+                }
+                ImageIO.write(image, "jpg", photos.resolve(name).toFile());
+            } else {
+                byte[] bytes = new byte[3 * 1024 * 1024];
+                random.nextBytes(bytes);
+                Files.write(photos.resolve(name), bytes);
+            }
+            paths.add("/uploads/photos/" + name);
+        }
+        return paths;
+    }
+
+    /** The validator a browser would revalidate with: ETag when present, else Last-Modified */
+    private Map<String, String[]> validators(List<String> paths) throws Exception {
+        Map<String, String[]> validators = new HashMap<>();
+        for (String path : paths) {
+            HttpResponse<Void> response = client.send(HttpRequest.newBuilder(URI.create(base + path)).build(),
+                    HttpResponse.BodyHandlers.discarding());
+            validators.put(path, response.headers().firstValue("ETag")
+                    .map(etag -> new String[]{"If-None-Match", etag})
+                    .orElseGet(() -> new String[]{"If-Modified-Since",
+                            response.headers().firstValue("Last-Modified").orElseThrow()}));
+        }
+        return validators;
+    }
+}
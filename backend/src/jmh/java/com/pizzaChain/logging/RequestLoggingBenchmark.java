@@ -0,0 +1,111 @@
+package com.pizzaChain.logging;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.joran.JoranConfigurator;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.joran.spi.JoranException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logging cost of one chat request, i.e. how many requests per millisecond the logging alone
+ * allows, with 4 request threads writing to a real file:
+ * <ul>
+ *   <li>sync-text: the old setup, full messages and every SQL statement written on the request thread</li>
+ *   <li>async-json: the prod profile, truncated payloads, JSON through an async appender, hot loggers sampled</li>
+ *   <li>async-json-unsampled: the same without sampling, to tell the two effects apart</li>
+ * </ul>
+ * The log lines are the ones ChatController and ChatService write for a request answered by OpenAI,
+ * plus the statements of a customer lookup. Logging uses its own LoggerContext configured from
+ * src/jmh/resources/logging; files go to target/jmh-logs.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class RequestLoggingBenchmark {
+
+    private static final String MESSAGE = "Hi! Do you deliver to the north side of town, and how long does it usually take "
+            + "on a Friday evening? We are ordering for a birthday party of about twelve people.";
+    private static final String REPLY = "Yes, we deliver across the north side! On Friday evenings delivery usually takes "
+            + "45 to 60 minutes, so for a party of twelve we recommend ordering about an hour ahead. Large orders can "
+            + "also be scheduled in advance from the order page, and our party bundle covers four large pizzas, two "
+            + "sides and drinks. Let me know if you would like to hear about vegetarian or gluten-free options too!";
+    private static final String SQL = "select c1_0.id,c1_0.dob,c1_0.email,c1_0.first_name,c1_0.last_name,c1_0.newsletter,"
+            + "c1_0.phone,c1_0.photo_path,c1_0.terms from public.customer c1_0 where c1_0.id=?";
+    private static final String SQL_BY_EMAIL = SQL.replace("c1_0.id=?", "c1_0.email=?");
+
+    @Param({"sync-text", "async-json", "async-json-unsampled"})
+    private String setup;
+
+    private LoggerContext context;
+    private Logger controller;
+    private Logger service;
+    private Logger sql;
+    private boolean preview;
+
+    @Setup(Level.Trial)
+    public void setUp() throws JoranException {
+        File logFile = new File("target/jmh-logs/" + setup + ".log");
+        logFile.getParentFile().mkdirs();
+        context = new LoggerContext();
+        context.setMDCAdapter(new LogbackMDCAdapter());
+        context.putProperty("LOG_FILE", logFile.getPath());
+        // StructuredLogEncoder reads the application name and similar from it, as under Spring Boot
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("benchmark", Map.of("spring.application.name", "pizzaChain")));
+        context.putObject(Environment.class.getName(), environment);
+        JoranConfigurator configurator = new JoranConfigurator();
+        configurator.setContext(context);
+        configurator.doConfigure(RequestLoggingBenchmark.class.getResource("/logging/" + setup + ".xml"));
+        context.start();
+
+        controller = context.getLogger("com.pizzaChain.chatbot.controller.ChatController");
+        service = context.getLogger("com.pizzaChain.chatbot.service.ChatService");
+        sql = context.getLogger("org.hibernate.SQL");
+        preview = !setup.equals("sync-text");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.stop();
+    }
+
+    @Benchmark
+    public void chatRequest() {
+        Object message = preview ? LogText.preview(MESSAGE) : MESSAGE;
+        Object reply = preview ? LogText.preview(REPLY) : REPLY;
+
+        sql.debug(SQL);
+        sql.debug(SQL_BY_EMAIL);
+        controller.info("Received chat request: {}", message);
+        service.info("Processing chat request: {}", message);
+        service.info("Sending request to OpenAI API with model: {}", "gpt-3.5-turbo");
+        service.info("OpenAI API response status: {}", 200);
+        service.info("Successfully received reply from OpenAI: {}", reply);
+        controller.info("Returning response: {}", reply);
+    }
+}
@@ -0,0 +1,61 @@
+package com.pizzaChain.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-request rate-limit check (the chat limit from application.properties). Four threads
+ * either hammer one client's bucket, the CAS contention case, or each use their own client.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class RateLimiterBenchmark {
+
+    private RateLimiter rateLimiter;
+
+    @State(Scope.Thread)
+    public static class Client {
+        String key;
+
+        @Setup
+        public void setUp() {
+            key = "10.0.0." + UUID.randomUUID();
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        rateLimiter = new RateLimiter(new RateLimitProperties(true, 100_000, Duration.ofMinutes(10),
+                Map.of("chat", new RateLimitProperties.Limit(1, Duration.ofSeconds(3)))), new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public long sharedClient() {
+        return rateLimiter.tryAcquire("chat", "10.0.0.1");
+    }
+
+    @Benchmark
+    public long ownClient(Client client) {
+        return rateLimiter.tryAcquire("chat", client.key);
+    }
+}
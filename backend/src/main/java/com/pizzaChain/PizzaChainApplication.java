@@ -2,8 +2,10 @@ package com.pizzaChain;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 @SpringBootApplication(scanBasePackages = "com.pizzaChain")
+@ConfigurationPropertiesScan
 public class PizzaChainApplication {
 	public static void main(String[] args) {
 		SpringApplication.run(PizzaChainApplication.class, args);
@@ -0,0 +1,52 @@
+package com.pizzaChain.chatbot.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pizzaChain.chatbot.dto.ChatResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * In-memory exact-match tier: size-bounded (W-TinyLFU eviction) with a time-to-live so
+ * menu or price changes reach users without a restart.
+ * Hit/miss/eviction counts are published as cache.* metrics with cache=chat.responses.
+ */
+@Component
+public class CaffeineChatResponseCache implements ChatResponseCache {
+
+    private final boolean enabled;
+    private final Cache<ChatCacheKey, ChatResponse> cache;
+
+    public CaffeineChatResponseCache(@Value("${chatbot.cache.enabled:true}") boolean enabled,
+                                     @Value("${chatbot.cache.max-size:1000}") long maxSize,
+                                     @Value("${chatbot.cache.ttl:PT1H}") Duration ttl,
+                                     MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "chat.responses");
+    }
+
+    @Override
+    public Optional<ChatResponse> get(ChatCacheKey key) {
+        if (!enabled || key.prompt().isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cache.getIfPresent(key));
+    }
+
+    @Override
+    public void put(ChatCacheKey key, ChatResponse response) {
+        if (enabled && !key.prompt().isEmpty()) {
+            cache.put(key, response);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.pizzaChain.chatbot.cache;
+
+/**
+ * Cache key for chatbot replies: the model plus the normalized prompt.
+ */
+public record ChatCacheKey(String model, String prompt) {
+
+    public static ChatCacheKey of(String model, String message) {
+        return new ChatCacheKey(model, PromptNormalizer.normalize(message));
+    }
+}
@@ -0,0 +1,17 @@
+package com.pizzaChain.chatbot.cache;
+
+import com.pizzaChain.chatbot.dto.ChatResponse;
+
+import java.util.Optional;
+
+/**
+ * Lookup tier in front of the OpenAI call. Implementations may be chained, e.g. an exact
+ * normalized-prompt tier followed by an embedding-similarity tier.
+ */
+public interface ChatResponseCache {
+
+    Optional<ChatResponse> get(ChatCacheKey key);
+
+    /** Only successful upstream replies should be stored */
+    void put(ChatCacheKey key, ChatResponse response);
+}
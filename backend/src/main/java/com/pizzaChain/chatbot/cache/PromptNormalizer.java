@@ -0,0 +1,47 @@
+package com.pizzaChain.chatbot.cache;
+
+/**
+ * Reduces a chat message to a canonical form so that trivially different phrasings
+ * ("What are your hours?", "what are your HOURS") share one cache entry.
+ * Lower-cases, drops punctuation, collapses whitespace and strips plural/possessive "s".
+ */
+public final class PromptNormalizer {
+
+    private PromptNormalizer() {}
+
+    public static String normalize(String message) {
+        if (message == null) {
+            return "";
+        }
+
+        StringBuilder out = new StringBuilder(message.length());
+        int wordStart = 0;
+        boolean pendingSpace = false;
+
+        for (int i = 0; i < message.length(); i++) {
+            char c = message.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && !out.isEmpty()) {
+                    stem(out, wordStart);
+                    out.append(' ');
+                    wordStart = out.length();
+                }
+                pendingSpace = false;
+                out.append(Character.toLowerCase(c));
+            } else if (c != '\'') {
+                // apostrophes are dropped without splitting: "what's" -> "whats" -> "what"
+                pendingSpace = true;
+            }
+        }
+        stem(out, wordStart);
+        return out.toString();
+    }
+
+    /** Light suffix stemming of the last word: "pizzas" -> "pizza", "hours" -> "hour" */
+    private static void stem(StringBuilder out, int wordStart) {
+        int length = out.length() - wordStart;
+        if (length > 3 && out.charAt(out.length() - 1) == 's' && out.charAt(out.length() - 2) != 's') {
+            out.setLength(out.length() - 1);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.pizzaChain.chatbot.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+
+/**
+ * Thin non-blocking transport for the OpenAI chat completions API.
+ * Request/response interpretation stays in ChatService.
+ */
+@Component
+public class OpenAiClient {
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final URI chatCompletionsUri;
+    private final String apiKey;
+    private final Duration readTimeout;
+
+    public OpenAiClient(HttpClient openAiHttpClient,
+                        ObjectMapper objectMapper,
+                        @Value("${openai.base-url:https://api.openai.com/v1}") String baseUrl,
+                        @Value("${openai.api.key:}") String apiKey,
+                        @Value("${openai.read-timeout:20s}") Duration readTimeout) {
+        this.httpClient = openAiHttpClient;
+        this.objectMapper = objectMapper;
+        this.chatCompletionsUri = URI.create(baseUrl.replaceAll("/+$", "") + "/chat/completions");
+        this.apiKey = apiKey == null ? "" : apiKey.trim();
+        this.readTimeout = readTimeout;
+    }
+
+    public boolean isConfigured() {
+        return !apiKey.isEmpty();
+    }
+
+    /**
+     * POSTs the body to /chat/completions. The future completes with the raw response for any
+     * HTTP status; it completes exceptionally only for transport failures and timeouts.
+     */
+    public CompletableFuture<HttpResponse<String>> chatCompletions(Map<String, Object> body) {
+        HttpRequest request;
+        try {
+            request = buildRequest(body, "application/json");
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Streaming variant: the body must contain "stream": true. Lines of a 2xx response are pushed
+     * to lineSubscriber as they arrive; other responses are discarded. The future completes with
+     * the response once the body has been fully consumed. It is the exchange itself, so cancelling
+     * it aborts the HTTP call.
+     */
+    public CompletableFuture<HttpResponse<Void>> streamChatCompletions(Map<String, Object> body,
+                                                                       Flow.Subscriber<String> lineSubscriber) {
+        HttpRequest request;
+        try {
+            request = buildRequest(body, "text/event-stream");
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        HttpResponse.BodyHandler<Void> handler = info -> info.statusCode() / 100 == 2
+                ? HttpResponse.BodySubscribers.fromLineSubscriber(lineSubscriber)
+                : HttpResponse.BodySubscribers.discarding();
+        return httpClient.sendAsync(request, handler);
+    }
+
+    private HttpRequest buildRequest(Map<String, Object> body, String accept) throws JsonProcessingException {
+        return HttpRequest.newBuilder(chatCompletionsUri)
+                .timeout(readTimeout)
+                .header("Content-Type", "application/json")
+                .header("Accept", accept)
+                .header("Authorization", "Bearer " + apiKey)
+                .header("User-Agent", "PizzaChain-Bot/1.0")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                .build();
+    }
+}
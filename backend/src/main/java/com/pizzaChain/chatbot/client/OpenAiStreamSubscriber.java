@@ -0,0 +1,121 @@
+package com.pizzaChain.chatbot.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+
+/**
+ * Consumes a "stream": true chat completion line by line as it arrives. Each
+ * "data: {...}" event carries choices[0].delta.content; "data: [DONE]" ends the stream.
+ * Every non-empty delta is handed to onDelta immediately and appended to the full reply.
+ * If onDelta throws, the upstream stream is cancelled. Cancelling the line subscription alone
+ * leaves the response future pending, so the owner of the exchange registers whenCancelled to
+ * abort it.
+ */
+public class OpenAiStreamSubscriber implements Flow.Subscriber<String> {
+
+    private static final Logger logger = LoggerFactory.getLogger(OpenAiStreamSubscriber.class);
+
+    private final ObjectMapper objectMapper;
+    private final Consumer<String> onDelta;
+    private final StringBuilder reply = new StringBuilder();
+    private volatile Flow.Subscription subscription;
+    private volatile boolean cancelled;
+    private volatile Runnable onCancel;
+    private boolean done;
+    private JsonNode usage;
+
+    public OpenAiStreamSubscriber(ObjectMapper objectMapper, Consumer<String> onDelta) {
+        this.objectMapper = objectMapper;
+        this.onDelta = onDelta;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        if (cancelled) {
+            subscription.cancel();
+        } else {
+            subscription.request(Long.MAX_VALUE);
+        }
+    }
+
+    @Override
+    public void onNext(String line) {
+        if (done || !line.startsWith("data:")) {
+            return; // blank separators, comments and "event:" lines carry nothing we need
+        }
+        String data = line.substring(5).trim();
+        if ("[DONE]".equals(data)) {
+            done = true;
+            return;
+        }
+        try {
+            JsonNode chunk = objectMapper.readTree(data);
+            if (chunk.path("usage").isObject()) {
+                usage = chunk.path("usage");
+            }
+            JsonNode delta = chunk.path("choices").path(0).path("delta").path("content");
+            if (delta.isTextual() && !delta.asText().isEmpty()) {
+                reply.append(delta.asText());
+                onDelta.accept(delta.asText());
+            }
+        } catch (IOException e) {
+            logger.warn("Skipping malformed stream chunk from OpenAI: {}", data);
+        } catch (RuntimeException e) {
+            // the consumer can no longer take fragments (e.g. the browser disconnected)
+            logger.debug("Stopping OpenAI stream: {}", e.getMessage());
+            cancel();
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        // surfaced through the response future
+    }
+
+    @Override
+    public void onComplete() {
+        done = true;
+    }
+
+    /** Stops reading from the upstream, e.g. when the browser went away */
+    public void cancel() {
+        cancelled = true;
+        Flow.Subscription current = subscription;
+        if (current != null) {
+            current.cancel();
+        }
+        Runnable action = onCancel;
+        if (action != null) {
+            action.run();
+        }
+    }
+
+    /** Runs action on cancel, or right away if the stream was already cancelled */
+    public void whenCancelled(Runnable action) {
+        onCancel = action;
+        if (cancelled) {
+            action.run();
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /** Token usage from the final chunk (sent with stream_options.include_usage), or null when none arrived */
+    public JsonNode usage() {
+        return usage;
+    }
+
+    /** The concatenated deltas received so far */
+    public String reply() {
+        return reply.toString();
+    }
+}
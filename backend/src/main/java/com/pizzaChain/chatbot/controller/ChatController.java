@@ -2,14 +2,34 @@ package com.pizzaChain.chatbot.controller;
 
 import com.pizzaChain.chatbot.dto.ChatRequest;
 import com.pizzaChain.chatbot.dto.ChatResponse;
+import com.pizzaChain.chatbot.resilience.CircuitBreaker;
+import com.pizzaChain.chatbot.service.ChatOutcome;
 import com.pizzaChain.chatbot.service.ChatService;
+import com.pizzaChain.chatbot.service.ChatStream;
 import com.pizzaChain.chatbot.service.FallbackChatService;
+import com.pizzaChain.logging.LogText;
+import com.pizzaChain.ratelimit.ClientKeyResolver;
+import com.pizzaChain.ratelimit.RateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @RestController
 @RequestMapping("/api/ai")
@@ -23,68 +43,208 @@ public class ChatController {
     @Autowired
     private FallbackChatService fallbackChatService;
 
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @Autowired
+    private CircuitBreaker circuitBreaker;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private static final long STREAM_TIMEOUT_MILLIS = 60_000;
+
+    // chat.fallback{reason}: why a reply came from the fallback responder instead of OpenAI
+    private final Map<ChatOutcome.Status, Counter> upstreamFallbacks = new EnumMap<>(ChatOutcome.Status.class);
+    private Counter forcedFallbacks;
+    private Counter errorFallbacks;
+
     @Value("${chatbot.use.fallback:false}")
     private boolean useFallbackOnly;
 
+    @PostConstruct
+    void registerFallbackCounters() {
+        for (ChatOutcome.Status status : ChatOutcome.Status.values()) {
+            if (ChatOutcome.of(status, "").shouldFallback()) {
+                upstreamFallbacks.put(status, fallbackCounter(status.name().toLowerCase()));
+            }
+        }
+        forcedFallbacks = fallbackCounter("forced");
+        errorFallbacks = fallbackCounter("error");
+    }
+
+    private Counter fallbackCounter(String reason) {
+        return Counter.builder("chat.fallback")
+                .description("Chat replies served by the fallback responder")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns a future so the servlet thread is released while OpenAI is working;
+     * Spring MVC completes the response when the future does.
+     */
     @PostMapping("/chat")
-    public ResponseEntity<ChatResponse> chat(@RequestBody ChatRequest request) {
-        logger.info("Received chat request: {}", request.message());
+    public CompletableFuture<ResponseEntity<ChatResponse>> chat(@RequestBody ChatRequest request,
+                                                            HttpServletRequest servletRequest) {
+        logger.info("Received chat request: {}", LogText.preview(request.message()));
 
-        try {
-            if (request.message() == null || request.message().trim().isEmpty()) {
-                return ResponseEntity.badRequest()
-                        .body(new ChatResponse("Please provide a message."));
-            }
+        if (request.message() == null || request.message().trim().isEmpty()) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body(new ChatResponse("Please provide a message.")));
+        }
 
-            ChatResponse response;
+        // Per-client limit (remote address, as resolved through the trusted proxies)
+        String clientKey = ClientKeyResolver.resolve(servletRequest);
+        if (rateLimiter.tryAcquire("chat", clientKey) > 0) {
+            logger.warn("Rate limiting chat client {}", clientKey);
+            return CompletableFuture.completedFuture(ResponseEntity.ok(
+                    new ChatResponse("⏱️ Please wait a moment before sending another message.")));
+        }
 
-            // If fallback-only mode is enabled, skip OpenAI
-            if (useFallbackOnly) {
-                logger.info("Using fallback responses only");
-                response = fallbackChatService.getFallbackResponse(request);
-            } else {
-                // Try OpenAI first, fallback if it fails
-                response = chatService.getChatResponse(request, "gpt-3.5-turbo");
+        // If fallback-only mode is enabled, skip OpenAI
+        if (useFallbackOnly) {
+            logger.info("Using fallback responses only");
+            forcedFallbacks.increment();
+            return CompletableFuture.completedFuture(respond(fallbackChatService.getFallbackResponse(request)));
+        }
 
-                // If OpenAI response indicates rate limiting or other API issues, use fallback
-                if (response.reply().contains("Rate limit exceeded") ||
-                        response.reply().contains("quota exceeded") ||
-                        response.reply().contains("Authentication error") ||
-                        response.reply().contains("Network error")) {
+        // Try OpenAI first, fallback if it fails (or straight away while the circuit breaker is open)
+        return chatService.getChatResponseAsync(request, "gpt-3.5-turbo")
+                .thenApply(outcome -> {
+                    if (!outcome.shouldFallback()) {
+                        return outcome.response();
+                    }
 
-                    logger.warn("OpenAI API issue detected, using fallback response");
-                    response = fallbackChatService.getFallbackResponse(request);
+                    logger.warn("OpenAI unavailable ({}), using fallback response", outcome.status());
+                    upstreamFallbacks.get(outcome.status()).increment();
+                    ChatResponse fallback = fallbackChatService.getFallbackResponse(request);
 
                     // Add a note that we're in fallback mode
                     String fallbackNote = "\n\n💡 *Note: I'm currently using simplified responses due to high demand. Full AI features will return shortly!*";
-                    response = new ChatResponse(response.reply() + fallbackNote);
-                }
-            }
+                    return new ChatResponse(fallback.reply() + fallbackNote);
+                })
+                .thenApply(this::respond)
+                .exceptionally(e -> {
+                    logger.error("Error processing chat request", e);
+                    errorFallbacks.increment();
+
+                    // Use fallback for any unexpected errors
+                    ChatResponse fallbackResponse = fallbackChatService.getFallbackResponse(request);
+                    String errorNote = "\n\n⚠️ *Experiencing technical difficulties - using basic responses temporarily*";
+
+                    return ResponseEntity.ok(
+                            new ChatResponse(fallbackResponse.reply() + errorNote)
+                    );
+                });
+    }
+
+    /**
+     * Streams the reply over Server-Sent Events as OpenAI generates it:
+     * "delta" events carry {"delta": "..."} fragments, a final "done" event carries the full ChatResponse.
+     * When OpenAI cannot answer before anything was streamed, the fallback reply is sent as one delta.
+     */
+    @PostMapping(value = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter chatStream(@RequestBody ChatRequest request, HttpServletRequest servletRequest) {
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MILLIS);
+
+        if (request.message() == null || request.message().trim().isEmpty()) {
+            sendFinal(emitter, new ChatResponse("Please provide a message."));
+            return emitter;
+        }
 
-            logger.info("Returning response: {}", response.reply());
-            return ResponseEntity.ok(response);
+        String clientKey = ClientKeyResolver.resolve(servletRequest);
+        if (rateLimiter.tryAcquire("chat", clientKey) > 0) {
+            logger.warn("Rate limiting chat client {}", clientKey);
+            sendFinal(emitter, new ChatResponse("⏱️ Please wait a moment before sending another message."));
+            return emitter;
+        }
+
+        if (useFallbackOnly) {
+            forcedFallbacks.increment();
+            sendFinal(emitter, fallbackChatService.getFallbackResponse(request));
+            return emitter;
+        }
 
-        } catch (Exception e) {
-            logger.error("Error processing chat request", e);
+        AtomicBoolean streamed = new AtomicBoolean();
+        ChatStream stream = chatService.streamChatResponse(request, "gpt-3.5-turbo", delta -> {
+            streamed.set(true);
+            try {
+                emitter.send(SseEmitter.event().name("delta").data(Map.of("delta", delta), MediaType.APPLICATION_JSON));
+            } catch (IOException | IllegalStateException e) {
+                // browser went away; stop reading from OpenAI
+                throw new CancellationException("Client disconnected");
+            }
+        });
+        emitter.onTimeout(stream.cancel());
+        emitter.onError(e -> stream.cancel().run());
+
+        stream.outcome().thenAccept(outcome -> {
+            if (outcome.shouldFallback() && !streamed.get()) {
+                logger.warn("OpenAI unavailable ({}), streaming fallback response", outcome.status());
+                upstreamFallbacks.get(outcome.status()).increment();
+                sendFinal(emitter, fallbackChatService.getFallbackResponse(request));
+            } else if (outcome.status() == ChatOutcome.Status.CANCELLED) {
+                logger.debug("Chat stream cancelled by the client");
+            } else if (outcome.status() == ChatOutcome.Status.SUCCESS || outcome.status() == ChatOutcome.Status.CACHED) {
+                try {
+                    emitter.send(SseEmitter.event().name("done").data(outcome.response(), MediaType.APPLICATION_JSON));
+                    emitter.complete();
+                } catch (IOException | IllegalStateException e) {
+                    emitter.completeWithError(e);
+                }
+            } else {
+                sendError(emitter, outcome.response());
+            }
+        });
+        return emitter;
+    }
 
-            // Use fallback for any unexpected errors
-            ChatResponse fallbackResponse = fallbackChatService.getFallbackResponse(request);
-            String errorNote = "\n\n⚠️ *Experiencing technical difficulties - using basic responses temporarily*";
+    /** Sends a whole reply as a single delta followed by done */
+    private void sendFinal(SseEmitter emitter, ChatResponse response) {
+        try {
+            emitter.send(SseEmitter.event().name("delta").data(Map.of("delta", response.reply()), MediaType.APPLICATION_JSON));
+            emitter.send(SseEmitter.event().name("done").data(response, MediaType.APPLICATION_JSON));
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+        }
+    }
 
-            return ResponseEntity.ok(
-                    new ChatResponse(fallbackResponse.reply() + errorNote)
-            );
+    private void sendError(SseEmitter emitter, ChatResponse response) {
+        try {
+            emitter.send(SseEmitter.event().name("error").data(response, MediaType.APPLICATION_JSON));
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
         }
     }
 
+    private ResponseEntity<ChatResponse> respond(ChatResponse response) {
+        logger.info("Returning response: {}", LogText.preview(response.reply()));
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/health")
-    public ResponseEntity<String> health() {
-        return ResponseEntity.ok("Chat service is running");
+    public ResponseEntity<Map<String, Object>> health() {
+        CircuitBreaker.Snapshot breaker = circuitBreaker.snapshot();
+
+        Map<String, Object> circuit = new LinkedHashMap<>();
+        circuit.put("state", breaker.state());
+        circuit.put("bufferedCalls", breaker.bufferedCalls());
+        circuit.put("failureRate", breaker.failureRate());
+        circuit.put("slowCallRate", breaker.slowCallRate());
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", "Chat service is running");
+        body.put("mode", useFallbackOnly || breaker.state() == CircuitBreaker.State.OPEN ? "fallback" : "openai");
+        body.put("circuitBreaker", circuit);
+        return ResponseEntity.ok(body);
     }
 
     @PostMapping("/fallback-only")
     public ResponseEntity<ChatResponse> fallbackOnly(@RequestBody ChatRequest request) {
-        logger.info("Using fallback-only mode for: {}", request.message());
+        logger.info("Using fallback-only mode for: {}", LogText.preview(request.message()));
         ChatResponse response = fallbackChatService.getFallbackResponse(request);
         return ResponseEntity.ok(response);
     }
@@ -0,0 +1,19 @@
+package com.pizzaChain.chatbot.intent;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keyword overrides for the fallback intent table, e.g.
+ * chatbot.fallback.keywords.delivery=delivery,deliver,pickup,location,address
+ * Intents not listed keep their built-in keywords.
+ */
+@ConfigurationProperties("chatbot.fallback")
+public record FallbackIntentProperties(Map<String, List<String>> keywords) {
+
+    public FallbackIntentProperties {
+        if (keywords == null) keywords = Map.of();
+    }
+}
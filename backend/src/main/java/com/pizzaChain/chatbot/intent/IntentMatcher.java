@@ -0,0 +1,167 @@
+package com.pizzaChain.chatbot.intent;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Aho-Corasick automaton over all intent keywords, compiled once into a dense DFA.
+ * <p>
+ * {@link #classify(CharSequence)} scans the message once, lower-casing on the fly, and
+ * only accepts keywords that start and end on a word boundary ("hi" does not match "this").
+ * When several intents match, the one declared first wins. Classification allocates nothing.
+ * At most 64 intents are supported.
+ */
+public final class IntentMatcher {
+
+    public static final int NO_MATCH = -1;
+
+    // Alphabet: a-z, 0-9, space, and one symbol for everything else (never part of a keyword)
+    private static final int SPACE = 36;
+    private static final int OTHER = 37;
+    private static final int ALPHABET = 38;
+
+    private final int[][] transitions;
+    /** Pattern ids (own and inherited through suffix links) recognised when entering each state */
+    private final int[][] outputs;
+    private final int[] patternLength;
+    private final int[] patternIntent;
+    private final int intentCount;
+
+    /**
+     * @param keywordsByIntent keywords per intent, in priority order
+     */
+    public IntentMatcher(List<List<String>> keywordsByIntent) {
+        if (keywordsByIntent.size() > Long.SIZE) {
+            throw new IllegalArgumentException("At most " + Long.SIZE + " intents are supported");
+        }
+        this.intentCount = keywordsByIntent.size();
+
+        List<int[]> goTo = new ArrayList<>();
+        List<List<Integer>> own = new ArrayList<>();
+        List<Integer> lengths = new ArrayList<>();
+        List<Integer> intents = new ArrayList<>();
+        goTo.add(newRow());
+        own.add(new ArrayList<>());
+
+        // 1. trie of all keywords
+        for (int intent = 0; intent < keywordsByIntent.size(); intent++) {
+            for (String keyword : keywordsByIntent.get(intent)) {
+                String normalized = keyword.trim().toLowerCase().replaceAll("\\s+", " ");
+                if (normalized.isEmpty()) {
+                    continue;
+                }
+                int state = 0;
+                for (int i = 0; i < normalized.length(); i++) {
+                    int symbol = symbol(normalized.charAt(i));
+                    if (symbol == OTHER) {
+                        throw new IllegalArgumentException("Unsupported character in keyword: " + keyword);
+                    }
+                    if (goTo.get(state)[symbol] < 0) {
+                        goTo.get(state)[symbol] = goTo.size();
+                        goTo.add(newRow());
+                        own.add(new ArrayList<>());
+                    }
+                    state = goTo.get(state)[symbol];
+                }
+                own.get(state).add(lengths.size());
+                lengths.add(normalized.length());
+                intents.add(intent);
+            }
+        }
+
+        // 2. failure links by BFS, folding them into a complete transition table
+        int states = goTo.size();
+        int[] fail = new int[states];
+        int[][] outputLists = new int[states][];
+        outputLists[0] = new int[0];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int symbol = 0; symbol < ALPHABET; symbol++) {
+            int next = goTo.get(0)[symbol];
+            if (next < 0) {
+                goTo.get(0)[symbol] = 0;
+            } else {
+                fail[next] = 0;
+                queue.add(next);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            outputLists[state] = merge(own.get(state), outputLists[fail[state]]);
+            for (int symbol = 0; symbol < ALPHABET; symbol++) {
+                int next = goTo.get(state)[symbol];
+                if (next < 0) {
+                    goTo.get(state)[symbol] = goTo.get(fail[state])[symbol];
+                } else {
+                    fail[next] = goTo.get(fail[state])[symbol];
+                    queue.add(next);
+                }
+            }
+        }
+
+        this.transitions = goTo.toArray(new int[0][]);
+        this.outputs = outputLists;
+        this.patternLength = lengths.stream().mapToInt(Integer::intValue).toArray();
+        this.patternIntent = intents.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * @return index of the highest-priority intent with a whole-word keyword in text, or NO_MATCH
+     */
+    public int classify(CharSequence text) {
+        long matched = 0L;
+        int state = 0;
+        int length = text.length();
+
+        for (int i = 0; i < length; i++) {
+            state = transitions[state][symbol(text.charAt(i))];
+            int[] found = outputs[state];
+            if (found.length == 0) {
+                continue;
+            }
+            boolean endsOnBoundary = i + 1 == length || !Character.isLetterOrDigit(text.charAt(i + 1));
+            if (!endsOnBoundary) {
+                continue;
+            }
+            for (int pattern : found) {
+                int start = i + 1 - patternLength[pattern];
+                if (start == 0 || !Character.isLetterOrDigit(text.charAt(start - 1))) {
+                    matched |= 1L << patternIntent[pattern];
+                }
+            }
+            if ((matched & 1L) != 0) {
+                return 0; // nothing outranks the first intent
+            }
+        }
+        return matched == 0 ? NO_MATCH : Long.numberOfTrailingZeros(matched);
+    }
+
+    public int intentCount() {
+        return intentCount;
+    }
+
+    private static int symbol(char c) {
+        if (c >= 'a' && c <= 'z') return c - 'a';
+        if (c >= 'A' && c <= 'Z') return c - 'A';
+        if (c >= '0' && c <= '9') return 26 + (c - '0');
+        if (Character.isWhitespace(c)) return SPACE;
+        return OTHER;
+    }
+
+    private static int[] newRow() {
+        int[] row = new int[ALPHABET];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    private static int[] merge(List<Integer> own, int[] inherited) {
+        int[] merged = new int[own.size() + inherited.length];
+        for (int i = 0; i < own.size(); i++) {
+            merged[i] = own.get(i);
+        }
+        System.arraycopy(inherited, 0, merged, own.size(), inherited.length);
+        return merged;
+    }
+}
@@ -0,0 +1,167 @@
+package com.pizzaChain.chatbot.resilience;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based sliding-window circuit breaker.
+ * <ul>
+ *   <li>CLOSED: calls pass; once the window holds minimumCalls results, a failure rate or a
+ *       slow-call rate at or above its threshold opens the breaker.</li>
+ *   <li>OPEN: calls are rejected until openDuration has elapsed.</li>
+ *   <li>HALF_OPEN: halfOpenCalls trial calls pass; their results decide between CLOSED and OPEN.</li>
+ * </ul>
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    public record Snapshot(State state, int bufferedCalls, float failureRate, float slowCallRate) {}
+
+    private final CircuitBreakerProperties properties;
+    private final LongSupplier nanoClock;
+    private final BiConsumer<State, State> transitionListener;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // ring buffer of the last windowSize results
+    private final boolean[] failed;
+    private final boolean[] slow;
+    private int next;
+    private int buffered;
+    private int failures;
+    private int slowCalls;
+
+    private volatile State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermitsLeft;
+
+    public CircuitBreaker(CircuitBreakerProperties properties,
+                          LongSupplier nanoClock,
+                          BiConsumer<State, State> transitionListener) {
+        this.properties = properties;
+        this.nanoClock = nanoClock;
+        this.transitionListener = transitionListener;
+        this.failed = new boolean[properties.windowSize()];
+        this.slow = new boolean[properties.windowSize()];
+    }
+
+    /** Must be called before each upstream call; false means skip the upstream entirely */
+    public boolean tryAcquirePermission() {
+        if (!properties.enabled() || state == State.CLOSED) {
+            return true;
+        }
+        lock.lock();
+        try {
+            if (state == State.OPEN) {
+                if (nanoClock.getAsLong() - openedAt < properties.openDuration().toNanos()) {
+                    return false;
+                }
+                transitionTo(State.HALF_OPEN);
+            }
+            if (state == State.HALF_OPEN) {
+                if (halfOpenPermitsLeft == 0) {
+                    return false;
+                }
+                halfOpenPermitsLeft--;
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Records the result of a permitted call */
+    public void record(boolean failure, long durationNanos) {
+        if (!properties.enabled()) {
+            return;
+        }
+        boolean wasSlow = durationNanos >= properties.slowCallThreshold().toNanos();
+        lock.lock();
+        try {
+            if (state == State.OPEN) {
+                return; // a straggler from before the breaker opened
+            }
+            add(failure, wasSlow);
+
+            if (state == State.HALF_OPEN) {
+                if (buffered >= properties.halfOpenCalls()) {
+                    transitionTo(exceedsThresholds() ? State.OPEN : State.CLOSED);
+                }
+            } else if (buffered >= properties.minimumCalls() && exceedsThresholds()) {
+                transitionTo(State.OPEN);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hands back the permission of a call its caller abandoned before it produced a result; the call
+     * says nothing about the upstream's health, but a half-open trial slot must not be lost with it
+     */
+    public void releasePermission() {
+        if (!properties.enabled() || state != State.HALF_OPEN) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN && halfOpenPermitsLeft < properties.halfOpenCalls()) {
+                halfOpenPermitsLeft++;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public Snapshot snapshot() {
+        lock.lock();
+        try {
+            return new Snapshot(state, buffered, rate(failures), rate(slowCalls));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void add(boolean failure, boolean wasSlow) {
+        if (buffered == failed.length) {
+            if (failed[next]) failures--;
+            if (slow[next]) slowCalls--;
+        } else {
+            buffered++;
+        }
+        failed[next] = failure;
+        slow[next] = wasSlow;
+        if (failure) failures++;
+        if (wasSlow) slowCalls++;
+        next = (next + 1) % failed.length;
+    }
+
+    private boolean exceedsThresholds() {
+        return rate(failures) >= properties.failureRateThreshold()
+                || rate(slowCalls) >= properties.slowCallRateThreshold();
+    }
+
+    private float rate(int count) {
+        return buffered == 0 ? 0f : count * 100f / buffered;
+    }
+
+    private void transitionTo(State target) {
+        State previous = state;
+        state = target;
+        next = 0;
+        buffered = 0;
+        failures = 0;
+        slowCalls = 0;
+        if (target == State.OPEN) {
+            openedAt = nanoClock.getAsLong();
+        } else if (target == State.HALF_OPEN) {
+            halfOpenPermitsLeft = properties.halfOpenCalls();
+        }
+        transitionListener.accept(previous, target);
+    }
+}
@@ -0,0 +1,27 @@
+package com.pizzaChain.chatbot.resilience;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Tuning for the OpenAI circuit breaker (chatbot.circuit-breaker.*).
+ *
+ * @param windowSize            number of most recent calls the failure/slow rates are computed over
+ * @param minimumCalls          calls needed in the window before the breaker may trip
+ * @param failureRateThreshold  percentage of failed calls that opens the breaker
+ * @param slowCallThreshold     calls slower than this count as slow
+ * @param slowCallRateThreshold percentage of slow calls that opens the breaker
+ * @param openDuration          how long the breaker stays open before letting trial calls through
+ * @param halfOpenCalls         trial calls allowed while half-open
+ */
+@ConfigurationProperties("chatbot.circuit-breaker")
+public record CircuitBreakerProperties(@DefaultValue("true") boolean enabled,
+                                       @DefaultValue("20") int windowSize,
+                                       @DefaultValue("10") int minimumCalls,
+                                       @DefaultValue("50") int failureRateThreshold,
+                                       @DefaultValue("8s") Duration slowCallThreshold,
+                                       @DefaultValue("80") int slowCallRateThreshold,
+                                       @DefaultValue("30s") Duration openDuration,
+                                       @DefaultValue("3") int halfOpenCalls) {}
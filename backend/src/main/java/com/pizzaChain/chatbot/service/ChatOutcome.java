@@ -0,0 +1,47 @@
+package com.pizzaChain.chatbot.service;
+
+import com.pizzaChain.chatbot.dto.ChatResponse;
+
+/**
+ * Result of a chat request as seen by ChatService: the reply to show plus what actually happened,
+ * so callers branch on the status instead of inspecting reply text.
+ */
+public record ChatOutcome(Status status, ChatResponse response) {
+
+    public enum Status {
+        SUCCESS,
+        CACHED,
+        INVALID_REQUEST,
+        NOT_CONFIGURED,
+        CIRCUIT_OPEN,
+        RATE_LIMITED,
+        QUOTA_EXCEEDED,
+        AUTH_ERROR,
+        NETWORK_ERROR,
+        TIMEOUT,
+        INVALID_RESPONSE,
+        UNEXPECTED_ERROR,
+        // The caller went away (browser disconnect, emitter timeout) before the reply was complete
+        CANCELLED
+    }
+
+    public static ChatOutcome of(Status status, String reply) {
+        return new ChatOutcome(status, new ChatResponse(reply));
+    }
+
+    /** True when the upstream could not answer and the fallback responder should be used instead */
+    public boolean shouldFallback() {
+        return switch (status) {
+            case CIRCUIT_OPEN, RATE_LIMITED, QUOTA_EXCEEDED, AUTH_ERROR, NETWORK_ERROR, TIMEOUT -> true;
+            default -> false;
+        };
+    }
+
+    /** True when the outcome counts against the upstream's health in the circuit breaker */
+    public boolean isUpstreamFailure() {
+        return switch (status) {
+            case RATE_LIMITED, QUOTA_EXCEEDED, AUTH_ERROR, NETWORK_ERROR, TIMEOUT, UNEXPECTED_ERROR -> true;
+            default -> false;
+        };
+    }
+}
@@ -1,165 +1,394 @@
 package com.pizzaChain.chatbot.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pizzaChain.chatbot.cache.ChatCacheKey;
+import com.pizzaChain.chatbot.cache.ChatResponseCache;
+import com.pizzaChain.chatbot.client.OpenAiClient;
+import com.pizzaChain.chatbot.client.OpenAiStreamSubscriber;
 import com.pizzaChain.chatbot.dto.ChatRequest;
 import com.pizzaChain.chatbot.dto.ChatResponse;
+import com.pizzaChain.chatbot.resilience.CircuitBreaker;
+import com.pizzaChain.chatbot.service.ChatOutcome.Status;
+import com.pizzaChain.diagnostics.jfr.OpenAiCallEvent;
+import com.pizzaChain.diagnostics.jfr.OpenAiParseEvent;
+import com.pizzaChain.logging.LogText;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.http.*;
 
-import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
 @Service
 public class ChatService {
 
     private static final Logger logger = LoggerFactory.getLogger(ChatService.class);
 
-    @Value("${openai.api.key}")
-    private String openaiApiKey;
+    private static final String DEFAULT_MODEL = "gpt-3.5-turbo";
+    private static final String SYSTEM_PROMPT =
+            "You are a helpful assistant for PizzaChain restaurant. " +
+                    "Help customers with menu questions, orders, and general inquiries. " +
+                    "Be friendly and concise. Keep responses under 100 words.";
+
+    private final OpenAiClient openAiClient;
+    private final ChatResponseCache responseCache;
+    private final CircuitBreaker circuitBreaker;
+    private final ObjectMapper objectMapper;
+    private final int maxTokens;
+    private final double temperature;
+    private final Duration maxCoalescedWait;
+
+    // Pre-registered so the request path only increments; tags are fixed enums, never prompt or model text
+    private final Timer blockingLatency;
+    private final Timer streamingLatency;
+    private final Map<Status, Counter> upstreamOutcomes = new EnumMap<>(Status.class);
+    private final Counter promptTokens;
+    private final Counter completionTokens;
+
+    // Identical prompts (same model + normalized text) in flight at the same time share one upstream call
+    private final SingleFlight<ChatCacheKey, ChatOutcome> inFlightPrompts = new SingleFlight<>();
+
+    public ChatService(OpenAiClient openAiClient,
+                       ChatResponseCache responseCache,
+                       CircuitBreaker openAiCircuitBreaker,
+                       ObjectMapper objectMapper,
+                       MeterRegistry meterRegistry,
+                       @Value("${openai.max.tokens:100}") int maxTokens,
+                       @Value("${openai.temperature:0.7}") double temperature,
+                       @Value("${chatbot.single-flight.max-wait:PT25S}") Duration maxCoalescedWait) {
+        this.openAiClient = openAiClient;
+        this.responseCache = responseCache;
+        this.circuitBreaker = openAiCircuitBreaker;
+        this.objectMapper = objectMapper;
+        this.maxTokens = maxTokens;
+        this.temperature = temperature;
+        this.maxCoalescedWait = maxCoalescedWait;
+
+        this.blockingLatency = upstreamTimer("blocking", meterRegistry);
+        this.streamingLatency = upstreamTimer("streaming", meterRegistry);
+        for (Status status : Status.values()) {
+            upstreamOutcomes.put(status, Counter.builder("chat.openai.outcomes")
+                    .description("Outcomes of calls that reached OpenAI, by status")
+                    .tag("status", status.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        this.promptTokens = tokenCounter("prompt", meterRegistry);
+        this.completionTokens = tokenCounter("completion", meterRegistry);
+    }
 
-    private static final String OPENAI_URL = "https://api.openai.com/v1/chat/completions";
+    /** chat.openai.latency{mode}: the whole upstream round trip, up to the last streamed fragment */
+    private static Timer upstreamTimer(String mode, MeterRegistry meterRegistry) {
+        return Timer.builder("chat.openai.latency")
+                .description("OpenAI call latency")
+                .tag("mode", mode)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(100))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry);
+    }
 
-    // Simple rate limiting - track last request time per IP/session
-    private final Map<String, LocalDateTime> lastRequestTimes = new ConcurrentHashMap<>();
-    private final int MIN_SECONDS_BETWEEN_REQUESTS = 3; // 3 seconds between requests
+    private static Counter tokenCounter(String type, MeterRegistry meterRegistry) {
+        return Counter.builder("chat.openai.tokens")
+                .description("Tokens billed by OpenAI, as reported in the response usage")
+                .tag("type", type)
+                .register(meterRegistry);
+    }
 
     public ChatResponse getChatResponse(ChatRequest request, String model) {
-        return getChatResponse(request, model, "default-user");
+        return getChatResponseAsync(request, model).join().response();
     }
 
-    public ChatResponse getChatResponse(ChatRequest request, String model, String userId) {
-        logger.info("Processing chat request from user {}: {}", userId, request.message());
-
-        // Check rate limiting
-        if (isRateLimited(userId)) {
-            logger.warn("Rate limiting user {}", userId);
-            return new ChatResponse("⏱️ Please wait a moment before sending another message.");
-        }
+    /**
+     * Non-blocking variant: the returned future completes on the HTTP client's threads,
+     * so no request thread waits on the OpenAI round trip. It never completes exceptionally;
+     * failures are reported through the outcome's status.
+     */
+    public CompletableFuture<ChatOutcome> getChatResponseAsync(ChatRequest request, String model) {
+        logger.info("Processing chat request: {}", LogText.preview(request.message()));
 
         // Validate API key
-        if (openaiApiKey == null || openaiApiKey.trim().isEmpty()) {
+        if (!openAiClient.isConfigured()) {
             logger.error("OpenAI API key is not configured");
-            return new ChatResponse("⚠️ Configuration error: API key not set");
+            return CompletableFuture.completedFuture(
+                    ChatOutcome.of(Status.NOT_CONFIGURED, "⚠️ Configuration error: API key not set"));
         }
 
         // Validate request
         if (request.message() == null || request.message().trim().isEmpty()) {
             logger.warn("Empty message received");
-            return new ChatResponse("Please provide a message.");
+            return CompletableFuture.completedFuture(
+                    ChatOutcome.of(Status.INVALID_REQUEST, "Please provide a message."));
         }
 
-        // Update last request time
-        lastRequestTimes.put(userId, LocalDateTime.now());
+        Map<String, Object> body = buildRequestBody(request, model);
+        ChatCacheKey cacheKey = ChatCacheKey.of((String) body.get("model"), request.message());
 
-        RestTemplate restTemplate = new RestTemplate();
+        // Repeated questions are answered without an outbound call
+        Optional<ChatResponse> cached = responseCache.get(cacheKey);
+        if (cached.isPresent()) {
+            logger.debug("Chat cache hit for prompt '{}'", cacheKey.prompt());
+            return CompletableFuture.completedFuture(new ChatOutcome(Status.CACHED, cached.get()));
+        }
 
-        try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.setBearerAuth(openaiApiKey.trim());
-            headers.set("User-Agent", "PizzaChain-Bot/1.0");
-
-            Map<String, Object> body = new HashMap<>();
-            body.put("model", model != null ? model : "gpt-3.5-turbo");
-            body.put("messages", new Object[]{
-                    Map.of("role", "system", "content",
-                            "You are a helpful assistant for PizzaChain restaurant. " +
-                                    "Help customers with menu questions, orders, and general inquiries. " +
-                                    "Be friendly and concise. Keep responses under 100 words."),
-                    Map.of("role", "user", "content", request.message().trim())
-            });
-            body.put("max_tokens", 100); // Reduced to save on token usage
-            body.put("temperature", 0.7);
-
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
-
-            logger.info("Sending request to OpenAI API with model: {}", body.get("model"));
-
-            ResponseEntity<Map> response = restTemplate.postForEntity(OPENAI_URL, entity, Map.class);
-
-            logger.info("OpenAI API response status: {}", response.getStatusCode());
-
-            if (response.getBody() == null) {
-                logger.error("Received null response body from OpenAI");
-                return new ChatResponse("⚠️ Received empty response from AI service");
+        CompletableFuture<ChatOutcome> view = inFlightPrompts.execute(cacheKey, () -> callUpstream(body, cacheKey), maxCoalescedWait);
+        return cancelling(view.exceptionally(this::toErrorOutcome), view);
+    }
+
+    /** One guarded upstream call; shared by every coalesced waiter */
+    private CompletableFuture<ChatOutcome> callUpstream(Map<String, Object> body, ChatCacheKey cacheKey) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            logger.debug("OpenAI circuit breaker is {}, skipping upstream call", circuitBreaker.getState());
+            return CompletableFuture.completedFuture(
+                    ChatOutcome.of(Status.CIRCUIT_OPEN, "⚠️ AI service temporarily unavailable"));
+        }
+
+        logger.info("Sending request to OpenAI API with model: {}", body.get("model"));
+        OpenAiCallEvent event = OpenAiCallEvent.start((String) body.get("model"), "blocking");
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse<String>> exchange = openAiClient.chatCompletions(body);
+        CompletableFuture<ChatOutcome> recorded = exchange
+                .thenApply(response -> {
+                    event.httpStatus(response.statusCode());
+                    return toOutcome(response, cacheKey);
+                })
+                .exceptionally(this::toErrorOutcome)
+                .whenComplete((result, failure) -> recordUpstream(blockingLatency, event, result, System.nanoTime() - start));
+        // SingleFlight cancels what we return when the last waiter leaves. A cancelled whenComplete
+        // stage never runs its action, so hand out a copy: cancelling it aborts the exchange, which
+        // completes recorded as CANCELLED and gives the breaker permission back
+        return cancelling(recorded.copy(), exchange);
+    }
+
+    /**
+     * Passes cancellation of derived back to source, which CompletableFuture never does by itself:
+     * cancelling a thenApply/exceptionally stage leaves the future it was derived from running
+     */
+    private static <T> CompletableFuture<T> cancelling(CompletableFuture<T> derived, Future<?> source) {
+        derived.whenComplete((result, failure) -> {
+            if (derived.isCancelled()) {
+                source.cancel(true);
             }
+        });
+        return derived;
+    }
 
-            // Extract the reply safely
-            try {
-                @SuppressWarnings("unchecked")
-                java.util.List<Map<String, Object>> choices =
-                        (java.util.List<Map<String, Object>>) response.getBody().get("choices");
+    /**
+     * Streams the reply as it is generated: onDelta receives each text fragment as soon as OpenAI
+     * sends it, and the stream's outcome completes at the end (SUCCESS carries the full reply).
+     * Cache hits arrive as a single fragment. Nothing is streamed for failed outcomes, so callers
+     * can still fall back when no fragment was delivered.
+     */
+    public ChatStream streamChatResponse(ChatRequest request, String model, Consumer<String> onDelta) {
+        if (!openAiClient.isConfigured()) {
+            logger.error("OpenAI API key is not configured");
+            return ChatStream.completed(ChatOutcome.of(Status.NOT_CONFIGURED, "⚠️ Configuration error: API key not set"));
+        }
+        if (request.message() == null || request.message().trim().isEmpty()) {
+            return ChatStream.completed(ChatOutcome.of(Status.INVALID_REQUEST, "Please provide a message."));
+        }
 
-                if (choices == null || choices.isEmpty()) {
-                    logger.error("No choices in OpenAI response");
-                    return new ChatResponse("⚠️ Invalid response format from AI service");
-                }
+        Map<String, Object> body = buildRequestBody(request, model);
+        ChatCacheKey cacheKey = ChatCacheKey.of((String) body.get("model"), request.message());
 
-                @SuppressWarnings("unchecked")
-                Map<String, Object> message = (Map<String, Object>) choices.get(0).get("message");
+        Optional<ChatResponse> cached = responseCache.get(cacheKey);
+        if (cached.isPresent()) {
+            onDelta.accept(cached.get().reply());
+            return ChatStream.completed(new ChatOutcome(Status.CACHED, cached.get()));
+        }
 
-                if (message == null) {
-                    logger.error("No message in OpenAI choice");
-                    return new ChatResponse("⚠️ Invalid message format from AI service");
-                }
+        if (!circuitBreaker.tryAcquirePermission()) {
+            return ChatStream.completed(ChatOutcome.of(Status.CIRCUIT_OPEN, "⚠️ AI service temporarily unavailable"));
+        }
 
-                String content = (String) message.get("content");
+        body.put("stream", true);
+        // Adds a final chunk with the token usage, which streamed responses otherwise leave out
+        body.put("stream_options", Map.of("include_usage", true));
+        OpenAiStreamSubscriber subscriber = new OpenAiStreamSubscriber(objectMapper, onDelta);
+        logger.info("Streaming request to OpenAI API with model: {}", body.get("model"));
+
+        OpenAiCallEvent event = OpenAiCallEvent.start((String) body.get("model"), "streaming");
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse<Void>> upstream = openAiClient.streamChatCompletions(body, subscriber);
+        CompletableFuture<ChatOutcome> recorded = upstream
+                .thenApply(response -> {
+                    int status = response.statusCode();
+                    event.httpStatus(status);
+                    if (subscriber.isCancelled()) {
+                        return cancelledOutcome();
+                    }
+                    if (status < 200 || status >= 300) {
+                        return errorStatusOutcome(status, null);
+                    }
+                    String reply = subscriber.reply().trim();
+                    if (reply.isEmpty()) {
+                        return ChatOutcome.of(Status.INVALID_RESPONSE, "⚠️ Received empty response from AI service");
+                    }
+                    recordUsage(subscriber.usage());
+                    ChatResponse chatResponse = new ChatResponse(reply);
+                    responseCache.put(cacheKey, chatResponse);
+                    return new ChatOutcome(Status.SUCCESS, chatResponse);
+                })
+                .exceptionally(failure -> subscriber.isCancelled() ? cancelledOutcome() : toErrorOutcome(failure))
+                .whenComplete((result, failure) -> recordUpstream(streamingLatency, event, result, System.nanoTime() - start));
+
+        // Whether the caller cancels or onDelta throws, the exchange itself is cancelled, which closes
+        // the connection to OpenAI and completes the outcome as CANCELLED
+        subscriber.whenCancelled(() -> upstream.cancel(true));
+        return new ChatStream(cancelling(recorded.copy(), upstream), subscriber::cancel);
+    }
 
-                if (content == null || content.trim().isEmpty()) {
-                    logger.error("Empty content in OpenAI message");
-                    return new ChatResponse("⚠️ Received empty response from AI service");
-                }
+    private void recordUpstream(Timer latency, OpenAiCallEvent event, ChatOutcome outcome, long elapsedNanos) {
+        if (outcome != null && outcome.status() == Status.CANCELLED) {
+            // Our caller left, which says nothing about OpenAI's health or latency
+            circuitBreaker.releasePermission();
+        } else {
+            circuitBreaker.record(outcome != null && outcome.isUpstreamFailure(), elapsedNanos);
+            latency.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        }
+        if (outcome != null) {
+            upstreamOutcomes.get(outcome.status()).increment();
+        }
+        event.finish(outcome != null ? outcome.status().name() : "UNKNOWN");
+    }
 
-                String reply = content.trim();
-                logger.info("Successfully received reply from OpenAI: {}", reply);
-                return new ChatResponse(reply);
+    private void recordUsage(JsonNode usage) {
+        if (usage != null && usage.isObject()) {
+            promptTokens.increment(usage.path("prompt_tokens").asLong());
+            completionTokens.increment(usage.path("completion_tokens").asLong());
+        }
+    }
+
+    Map<String, Object> buildRequestBody(ChatRequest request, String model) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("model", model != null ? model : DEFAULT_MODEL);
+        body.put("messages", new Object[]{
+                Map.of("role", "system", "content", SYSTEM_PROMPT),
+                Map.of("role", "user", "content", request.message().trim())
+        });
+        body.put("max_tokens", maxTokens);
+        body.put("temperature", temperature);
+        return body;
+    }
+
+    ChatOutcome toOutcome(HttpResponse<String> response, ChatCacheKey cacheKey) {
+        int status = response.statusCode();
+        logger.info("OpenAI API response status: {}", status);
 
-            } catch (ClassCastException | NullPointerException e) {
-                logger.error("Error parsing OpenAI response structure", e);
-                return new ChatResponse("⚠️ Error parsing AI response");
+        if (status < 200 || status >= 300) {
+            return errorStatusOutcome(status, response.body());
+        }
+
+        if (response.body() == null || response.body().isBlank()) {
+            logger.error("Received null response body from OpenAI");
+            return ChatOutcome.of(Status.INVALID_RESPONSE, "⚠️ Received empty response from AI service");
+        }
+
+        return parseReply(response.body(), cacheKey);
+    }
+
+    private ChatOutcome errorStatusOutcome(int status, String body) {
+        if (status == 401) {
+            return ChatOutcome.of(Status.AUTH_ERROR, "⚠️ Authentication error: Please check your OpenAI account and API key");
+        }
+        if (status == 429) {
+            return body != null && body.contains("insufficient_quota")
+                    ? ChatOutcome.of(Status.QUOTA_EXCEEDED, "⚠️ OpenAI quota exceeded. Please check your OpenAI billing.")
+                    : ChatOutcome.of(Status.RATE_LIMITED, "⚠️ Rate limit exceeded. Please wait a few minutes and try again.");
+        }
+        logger.error("OpenAI API returned status {}: {}", status, LogText.preview(body));
+        return ChatOutcome.of(Status.NETWORK_ERROR, "⚠️ Network error: Unable to connect to AI service");
+    }
+
+    /** Parses a completion body; a successful reply is stored under cacheKey when one is given */
+    ChatOutcome parseReply(String json, ChatCacheKey cacheKey) {
+        OpenAiParseEvent event = OpenAiParseEvent.start(json);
+        ChatOutcome outcome = parse(json, cacheKey, event);
+        event.finish(outcome.status().name());
+        return outcome;
+    }
+
+    private ChatOutcome parse(String json, ChatCacheKey cacheKey, OpenAiParseEvent event) {
+        // Extract the reply safely
+        try {
+            JsonNode root = objectMapper.readTree(json);
+            JsonNode usage = root.path("usage");
+            recordUsage(usage);
+            if (event.isEnabled()) {
+                event.tokens(usage.path("prompt_tokens").asLong(), usage.path("completion_tokens").asLong());
+            }
+            JsonNode choices = root.path("choices");
+            if (!choices.isArray() || choices.isEmpty()) {
+                logger.error("No choices in OpenAI response");
+                return ChatOutcome.of(Status.INVALID_RESPONSE, "⚠️ Invalid response format from AI service");
+            }
+
+            JsonNode message = choices.get(0).path("message");
+            if (!message.isObject()) {
+                logger.error("No message in OpenAI choice");
+                return ChatOutcome.of(Status.INVALID_RESPONSE, "⚠️ Invalid message format from AI service");
+            }
+
+            String content = message.path("content").asText("");
+            if (content.trim().isEmpty()) {
+                logger.error("Empty content in OpenAI message");
+                return ChatOutcome.of(Status.INVALID_RESPONSE, "⚠️ Received empty response from AI service");
             }
 
-        } catch (RestClientException e) {
-            logger.error("Network error calling OpenAI API", e);
-
-            if (e.getMessage().contains("401")) {
-                return new ChatResponse("⚠️ Authentication error: Please check your OpenAI account and API key");
-            } else if (e.getMessage().contains("429")) {
-                return new ChatResponse("⚠️ Rate limit exceeded. Please wait a few minutes and try again.");
-            } else if (e.getMessage().contains("insufficient_quota")) {
-                return new ChatResponse("⚠️ OpenAI quota exceeded. Please check your OpenAI billing.");
-            } else if (e.getMessage().contains("timeout")) {
-                return new ChatResponse("⚠️ Request timeout: Please try again");
-            } else {
-                return new ChatResponse("⚠️ Network error: Unable to connect to AI service");
+            String reply = content.trim();
+            logger.info("Successfully received reply from OpenAI: {}", LogText.preview(reply));
+            ChatResponse chatResponse = new ChatResponse(reply);
+            if (cacheKey != null) {
+                responseCache.put(cacheKey, chatResponse);
             }
+            return new ChatOutcome(Status.SUCCESS, chatResponse);
 
-        } catch (Exception e) {
-            logger.error("Unexpected error calling OpenAI API", e);
-            return new ChatResponse("⚠️ Unexpected error occurred. Please try again later.");
+        } catch (IOException e) {
+            logger.error("Error parsing OpenAI response structure", e);
+            return ChatOutcome.of(Status.INVALID_RESPONSE, "⚠️ Error parsing AI response");
         }
     }
 
-    private boolean isRateLimited(String userId) {
-        LocalDateTime lastRequest = lastRequestTimes.get(userId);
-        if (lastRequest == null) {
-            return false;
+    private ChatOutcome toErrorOutcome(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause()
+                : failure;
+
+        if (cause instanceof CancellationException) {
+            logger.debug("OpenAI call cancelled: {}", cause.getMessage());
+            return cancelledOutcome();
+        }
+        if (cause instanceof HttpTimeoutException || cause instanceof TimeoutException) {
+            logger.error("Timeout calling OpenAI API", cause);
+            return ChatOutcome.of(Status.TIMEOUT, "⚠️ Request timeout: Please try again");
+        }
+        if (cause instanceof IOException) {
+            logger.error("Network error calling OpenAI API", cause);
+            return ChatOutcome.of(Status.NETWORK_ERROR, "⚠️ Network error: Unable to connect to AI service");
         }
 
-        long secondsSinceLastRequest = ChronoUnit.SECONDS.between(lastRequest, LocalDateTime.now());
-        return secondsSinceLastRequest < MIN_SECONDS_BETWEEN_REQUESTS;
+        logger.error("Unexpected error calling OpenAI API", cause);
+        return ChatOutcome.of(Status.UNEXPECTED_ERROR, "⚠️ Unexpected error occurred. Please try again later.");
     }
 
-    // Method to clear old entries (call this periodically)
-    public void cleanupOldEntries() {
-        LocalDateTime cutoff = LocalDateTime.now().minusHours(1);
-        lastRequestTimes.entrySet().removeIf(entry -> entry.getValue().isBefore(cutoff));
+    private static ChatOutcome cancelledOutcome() {
+        return ChatOutcome.of(Status.CANCELLED, "Request cancelled");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,13 @@
+package com.pizzaChain.chatbot.service;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Handle for a streamed chat reply: the final outcome plus a way to stop reading from the upstream.
+ */
+public record ChatStream(CompletableFuture<ChatOutcome> outcome, Runnable cancel) {
+
+    static ChatStream completed(ChatOutcome outcome) {
+        return new ChatStream(CompletableFuture.completedFuture(outcome), () -> {});
+    }
+}
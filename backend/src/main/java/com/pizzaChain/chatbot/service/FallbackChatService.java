@@ -2,37 +2,57 @@ package com.pizzaChain.chatbot.service;
 
 import com.pizzaChain.chatbot.dto.ChatRequest;
 import com.pizzaChain.chatbot.dto.ChatResponse;
+import com.pizzaChain.chatbot.intent.FallbackIntentProperties;
+import com.pizzaChain.chatbot.intent.IntentMatcher;
+import com.pizzaChain.logging.LogText;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.util.Arrays;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Service
 public class FallbackChatService {
 
     private static final Logger logger = LoggerFactory.getLogger(FallbackChatService.class);
-    private final Random random = new Random();
 
-    // Predefined responses when OpenAI is unavailable
-    private final List<String> greetingResponses = Arrays.asList(
-            "Hello! Welcome to PizzaChain! 🍕 How can I help you today?",
-            "Hi there! I'm here to help with your pizza needs! What can I do for you?",
-            "Welcome to PizzaChain! Ready to order some delicious pizza? 🍕"
-    );
+    /** One row of the intent table: the first matching intent (in table order) answers */
+    private record Intent(String name, List<String> keywords, List<String> responses) {}
 
-    private final List<String> menuResponses = Arrays.asList(
-            "We have delicious pizzas including Margherita, Pepperoni, Hawaiian, and Meat Lovers! What sounds good to you? 🍕",
-            "Our popular pizzas include classic Margherita, spicy Pepperoni, tropical Hawaiian, and hearty Meat Lovers. Which would you like to know more about?",
-            "Check out our amazing pizza selection: Margherita, Pepperoni, Hawaiian, and Meat Lovers! All made fresh daily! 🍕"
-    );
-
-    private final List<String> orderResponses = Arrays.asList(
-            "I'd love to help you place an order! What size pizza would you like, and which toppings? 🍕",
-            "Great choice! Let's get your order started. What pizza and size would you prefer?",
-            "Perfect! What pizza can I add to your order today? We have small, medium, and large sizes available! 🍕"
+    // Predefined responses when OpenAI is unavailable
+    private static final List<Intent> DEFAULT_INTENTS = List.of(
+            new Intent("greeting",
+                    Arrays.asList("hello", "hi", "hey", "greetings", "good morning", "good afternoon", "good evening"),
+                    Arrays.asList(
+                            "Hello! Welcome to PizzaChain! 🍕 How can I help you today?",
+                            "Hi there! I'm here to help with your pizza needs! What can I do for you?",
+                            "Welcome to PizzaChain! Ready to order some delicious pizza? 🍕"
+                    )),
+            new Intent("menu",
+                    Arrays.asList("menu", "pizza", "pizzas", "what do you have", "options", "choices"),
+                    Arrays.asList(
+                            "We have delicious pizzas including Margherita, Pepperoni, Hawaiian, and Meat Lovers! What sounds good to you? 🍕",
+                            "Our popular pizzas include classic Margherita, spicy Pepperoni, tropical Hawaiian, and hearty Meat Lovers. Which would you like to know more about?",
+                            "Check out our amazing pizza selection: Margherita, Pepperoni, Hawaiian, and Meat Lovers! All made fresh daily! 🍕"
+                    )),
+            new Intent("order",
+                    Arrays.asList("order", "buy", "purchase", "want", "get", "take"),
+                    Arrays.asList(
+                            "I'd love to help you place an order! What size pizza would you like, and which toppings? 🍕",
+                            "Great choice! Let's get your order started. What pizza and size would you prefer?",
+                            "Perfect! What pizza can I add to your order today? We have small, medium, and large sizes available! 🍕"
+                    )),
+            new Intent("price",
+                    Arrays.asList("price", "cost", "how much", "pricing"),
+                    List.of("Our pizzas start at $12 for small, $16 for medium, and $20 for large. Prices may vary by toppings. What size were you thinking? 🍕")),
+            new Intent("delivery",
+                    Arrays.asList("delivery", "pickup", "location", "address"),
+                    List.of("We offer both delivery and pickup! We're located downtown and deliver within 5 miles. What's your preference? 🚚🍕")),
+            new Intent("hours",
+                    Arrays.asList("hours", "open", "close", "time"),
+                    List.of("We're open Monday-Sunday 11 AM to 11 PM! Perfect time for fresh pizza! 🍕⏰"))
     );
 
     private final List<String> defaultResponses = Arrays.asList(
@@ -41,49 +61,35 @@ public class FallbackChatService {
             "Thank you for contacting PizzaChain! How can I assist you with your pizza order today? 🍕"
     );
 
-    public ChatResponse getFallbackResponse(ChatRequest request) {
-        String message = request.message().toLowerCase().trim();
-        logger.info("Generating fallback response for: {}", message);
-
-        // Simple keyword matching for basic responses
-        if (containsAny(message, "hello", "hi", "hey", "greetings", "good morning", "good afternoon", "good evening")) {
-            return new ChatResponse(getRandomResponse(greetingResponses));
-        }
-
-        if (containsAny(message, "menu", "pizza", "pizzas", "what do you have", "options", "choices")) {
-            return new ChatResponse(getRandomResponse(menuResponses));
-        }
-
-        if (containsAny(message, "order", "buy", "purchase", "want", "get", "take")) {
-            return new ChatResponse(getRandomResponse(orderResponses));
-        }
-
-        if (containsAny(message, "price", "cost", "how much", "pricing")) {
-            return new ChatResponse("Our pizzas start at $12 for small, $16 for medium, and $20 for large. Prices may vary by toppings. What size were you thinking? 🍕");
-        }
-
-        if (containsAny(message, "delivery", "pickup", "location", "address")) {
-            return new ChatResponse("We offer both delivery and pickup! We're located downtown and deliver within 5 miles. What's your preference? 🚚🍕");
-        }
-
-        if (containsAny(message, "hours", "open", "close", "time")) {
-            return new ChatResponse("We're open Monday-Sunday 11 AM to 11 PM! Perfect time for fresh pizza! 🍕⏰");
-        }
+    private final List<Intent> intents;
+    private final IntentMatcher matcher;
 
-        // Default response for anything else
-        return new ChatResponse(getRandomResponse(defaultResponses));
+    public FallbackChatService(FallbackIntentProperties properties) {
+        this.intents = DEFAULT_INTENTS.stream()
+                .map(intent -> new Intent(intent.name(),
+                        properties.keywords().getOrDefault(intent.name(), intent.keywords()),
+                        intent.responses()))
+                .toList();
+        this.matcher = new IntentMatcher(intents.stream().map(Intent::keywords).toList());
     }
 
-    private boolean containsAny(String text, String... keywords) {
-        for (String keyword : keywords) {
-            if (text.contains(keyword)) {
-                return true;
-            }
+    public ChatResponse getFallbackResponse(ChatRequest request) {
+        String message = request.message() == null ? "" : request.message();
+        logger.info("Generating fallback response for: {}", LogText.preview(message));
+
+        // Single pass over the message for all keyword groups
+        int intent = matcher.classify(message);
+        if (intent == IntentMatcher.NO_MATCH) {
+            // Default response for anything else
+            return new ChatResponse(getRandomResponse(defaultResponses));
         }
-        return false;
+        return new ChatResponse(getRandomResponse(intents.get(intent).responses()));
     }
 
     private String getRandomResponse(List<String> responses) {
-        return responses.get(random.nextInt(responses.size()));
+        if (responses.size() == 1) {
+            return responses.get(0);
+        }
+        return responses.get(ThreadLocalRandom.current().nextInt(responses.size()));
     }
-}
\ No newline at end of file
+}
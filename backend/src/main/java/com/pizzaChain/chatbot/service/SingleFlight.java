@@ -0,0 +1,102 @@
+package com.pizzaChain.chatbot.service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key into one upstream call ("single flight").
+ * <p>
+ * Every caller gets its own view of the shared result, bounded by its own maximum wait.
+ * Cancelling or timing out a view only detaches that caller; when the last caller detaches
+ * from an unfinished call the upstream future is cancelled as well. Cancellation does not flow
+ * back through derived CompletableFuture stages, so the call must return a future whose
+ * cancellation reaches the work itself (ChatService's aborts the HTTP exchange). Keys are
+ * forgotten as soon as the upstream call completes, so results are never reused after the fact
+ * (that is the response cache's job).
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+
+    private static final class Flight<V> {
+        final CompletableFuture<V> result = new CompletableFuture<>();
+        final AtomicInteger waiters = new AtomicInteger(1);
+        volatile CompletableFuture<V> upstream;
+
+        /** Fails once every waiter has left, so a cancelled flight is never joined again */
+        boolean tryJoin() {
+            while (true) {
+                int current = waiters.get();
+                if (current == 0) {
+                    return false;
+                }
+                if (waiters.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        void leave() {
+            if (waiters.decrementAndGet() == 0 && !result.isDone()) {
+                CompletableFuture<V> call = upstream;
+                if (call != null) {
+                    call.cancel(true);
+                }
+                result.cancel(false);
+            }
+        }
+    }
+
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> call, Duration maxWait) {
+        @SuppressWarnings("unchecked")
+        Flight<V>[] started = new Flight[1];
+        Flight<V> flight = inFlight.compute(key, (k, existing) -> {
+            if (existing != null && existing.tryJoin()) {
+                return existing;
+            }
+            started[0] = new Flight<>();
+            return started[0];
+        });
+
+        if (started[0] == flight) {
+            start(key, flight, call);
+        }
+
+        CompletableFuture<V> view = flight.result.copy()
+                .orTimeout(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        view.whenComplete((value, failure) -> flight.leave());
+        return view;
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private void start(K key, Flight<V> flight, Supplier<CompletableFuture<V>> call) {
+        CompletableFuture<V> upstream;
+        try {
+            upstream = call.get();
+        } catch (RuntimeException e) {
+            upstream = CompletableFuture.failedFuture(e);
+        }
+        flight.upstream = upstream;
+        if (flight.result.isCancelled()) {
+            // every waiter left before the call was even assigned
+            upstream.cancel(true);
+        }
+        upstream.whenComplete((value, failure) -> {
+            inFlight.remove(key, flight);
+            if (failure != null) {
+                flight.result.completeExceptionally(failure);
+            } else {
+                flight.result.complete(value);
+            }
+        });
+        // Cancelled because every waiter left: forget the key immediately
+        flight.result.whenComplete((value, failure) -> inFlight.remove(key, flight));
+    }
+}
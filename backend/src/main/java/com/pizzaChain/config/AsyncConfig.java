@@ -0,0 +1,15 @@
+package com.pizzaChain.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Turns on @Async and @Scheduled. With spring.threads.virtual.enabled=true Spring Boot backs
+ * Tomcat's request handling, the @Async executor and the scheduler with virtual threads.
+ */
+@Configuration
+@EnableAsync
+@EnableScheduling
+public class AsyncConfig {
+}
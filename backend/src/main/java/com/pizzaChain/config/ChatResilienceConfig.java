@@ -0,0 +1,45 @@
+package com.pizzaChain.config;
+
+import com.pizzaChain.chatbot.resilience.CircuitBreaker;
+import com.pizzaChain.chatbot.resilience.CircuitBreakerProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+@Configuration
+public class ChatResilienceConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatResilienceConfig.class);
+
+    /**
+     * Breaker around the OpenAI call. Publishes chat.circuit.state (0 closed, 1 open, 2 half-open)
+     * and chat.circuit.transitions{to=...}.
+     */
+    @Bean
+    public CircuitBreaker openAiCircuitBreaker(CircuitBreakerProperties properties, MeterRegistry meterRegistry) {
+        Map<CircuitBreaker.State, Counter> transitions = new EnumMap<>(CircuitBreaker.State.class);
+        for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+            transitions.put(state, Counter.builder("chat.circuit.transitions")
+                    .description("OpenAI circuit breaker state changes")
+                    .tag("to", state.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+
+        CircuitBreaker breaker = new CircuitBreaker(properties, System::nanoTime, (from, to) -> {
+            logger.warn("OpenAI circuit breaker {} -> {}", from, to);
+            transitions.get(to).increment();
+        });
+
+        Gauge.builder("chat.circuit.state", breaker, b -> b.getState().ordinal())
+                .description("OpenAI circuit breaker state: 0 closed, 1 open, 2 half-open")
+                .register(meterRegistry);
+        return breaker;
+    }
+}
@@ -0,0 +1,111 @@
+package com.pizzaChain.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.pizzaChain.customerProfile.cache.CacheInvalidationChannel;
+import com.pizzaChain.customerProfile.cache.CacheRegions;
+import com.pizzaChain.customerProfile.cache.CustomerCacheProperties;
+import com.pizzaChain.customerProfile.cache.LocalCacheInvalidationChannel;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Hibernate second-level cache for customers: Caffeine behind JCache, one bounded region per
+ * cache so customer.cache.* sizes and TTLs apply, and statistics for hit-ratio metrics
+ * (hibernate.second.level.cache.* from hibernate-micrometer, plus customer.cache.hit.ratio).
+ */
+@Configuration
+public class CustomerCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(CustomerCacheProperties properties) {
+        // A manager of its own rather than the provider's shared default, which closing one context
+        // (e.g. a test context that failed to start) would close for every other context in the JVM
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("pizzaChain-hibernate-" + UUID.randomUUID()), provider.getDefaultClassLoader());
+        createIfAbsent(cacheManager, CacheRegions.CUSTOMERS, bounded(properties.maxSize(), properties.ttl()));
+        createIfAbsent(cacheManager, CacheRegions.CUSTOMER_INTERESTS, bounded(properties.maxSize(), properties.ttl()));
+        createIfAbsent(cacheManager, CacheRegions.QUERY_RESULTS, bounded(properties.queryMaxSize(), properties.queryTtl()));
+        // One entry per table, and must never expire before the query results it guards
+        createIfAbsent(cacheManager, CacheRegions.UPDATE_TIMESTAMPS, new CaffeineConfiguration<>());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CustomerCacheProperties properties,
+                                                                    CacheManager hibernateCacheManager) {
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, properties.enabled());
+            hibernateProperties.put(AvailableSettings.USE_QUERY_CACHE, properties.enabled());
+            hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            hibernateProperties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            // Every region is created above; an unknown one would be unbounded, so fail fast instead
+            hibernateProperties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            hibernateProperties.put(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public CacheInvalidationChannel cacheInvalidationChannel() {
+        return new LocalCacheInvalidationChannel();
+    }
+
+    @Bean
+    public MeterBinder customerCacheHitRatio(EntityManagerFactory entityManagerFactory) {
+        return registry -> {
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            hitRatio(registry, statistics, CacheRegions.CUSTOMERS, s -> s.getDomainDataRegionStatistics(CacheRegions.CUSTOMERS));
+            hitRatio(registry, statistics, CacheRegions.CUSTOMER_INTERESTS, s -> s.getDomainDataRegionStatistics(CacheRegions.CUSTOMER_INTERESTS));
+            hitRatio(registry, statistics, CacheRegions.QUERY_RESULTS, s -> s.getQueryRegionStatistics(CacheRegions.QUERY_RESULTS));
+        };
+    }
+
+    private static void hitRatio(MeterRegistry registry, Statistics statistics, String region,
+                                 Function<Statistics, CacheRegionStatistics> regionStatistics) {
+        Gauge.builder("customer.cache.hit.ratio", statistics, s -> {
+                    CacheRegionStatistics stats = regionStatistics.apply(s);
+                    long requests = stats == null ? 0 : stats.getHitCount() + stats.getMissCount();
+                    return requests == 0 ? Double.NaN : (double) stats.getHitCount() / requests;
+                })
+                .description("Second-level cache hit ratio since startup")
+                .tag("region", region)
+                .register(registry);
+    }
+
+    private static CaffeineConfiguration<Object, Object> bounded(long maxSize, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+
+    private static void createIfAbsent(CacheManager cacheManager, String region,
+                                       CaffeineConfiguration<Object, Object> configuration) {
+        if (cacheManager.getCache(region) == null) {
+            cacheManager.createCache(region, configuration);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.pizzaChain.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class OpenAiClientConfig {
+
+    /**
+     * Shared client for all OpenAI calls. The JDK client keeps a keep-alive connection pool
+     * per host and negotiates HTTP/2 over TLS, so one instance must be reused for every request.
+     */
+    @Bean
+    public HttpClient openAiHttpClient(@Value("${openai.connect-timeout:5s}") Duration connectTimeout,
+                                       @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NEVER);
+        if (virtualThreads) {
+            // Response handling and async completion stages run on virtual threads too
+            builder.executor(Executors.newVirtualThreadPerTaskExecutor());
+        }
+        return builder.build();
+    }
+}
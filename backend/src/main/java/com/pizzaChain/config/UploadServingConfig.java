@@ -0,0 +1,50 @@
+package com.pizzaChain.config;
+
+import com.pizzaChain.customerProfile.storage.ContentHashEtagGenerator;
+import com.pizzaChain.customerProfile.storage.PhotoStorageProperties;
+import com.pizzaChain.customerProfile.storage.PhotoStorageService;
+import com.pizzaChain.customerProfile.storage.UploadResourceHttpMessageConverter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.handler.SimpleUrlHandlerMapping;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serves /uploads/**. Upload names are random and never rewritten, so responses are marked
+ * immutable with a long max-age and a content-hash ETag; range requests are handled by
+ * ResourceHttpRequestHandler. Declared as its own handler (rather than through
+ * addResourceHandlers) because the registry does not let us swap the body writer.
+ */
+@Configuration
+public class UploadServingConfig {
+
+    private static final long ETAG_CACHE_ENTRIES = 10_000;
+
+    @Bean
+    public ResourceHttpRequestHandler uploadsResourceHandler(PhotoStorageService photoStorageService,
+                                                             PhotoStorageProperties properties,
+                                                             MeterRegistry meterRegistry) {
+        PhotoStorageProperties.Serving serving = properties.serving();
+        ResourceHttpRequestHandler handler = new ResourceHttpRequestHandler();
+        handler.setLocationValues(List.of("file:" + photoStorageService.root() + "/"));
+        handler.setCacheControl(CacheControl.maxAge(serving.maxAge()).cachePublic().immutable());
+        handler.setEtagGenerator(new ContentHashEtagGenerator(ETAG_CACHE_ENTRIES));
+        handler.setResourceHttpMessageConverter(new UploadResourceHttpMessageConverter(serving, meterRegistry));
+        return handler;
+    }
+
+    @Bean
+    public SimpleUrlHandlerMapping uploadsHandlerMapping(ResourceHttpRequestHandler uploadsResourceHandler) {
+        SimpleUrlHandlerMapping mapping = new SimpleUrlHandlerMapping(
+                Map.of(PhotoStorageService.WEB_PREFIX + "**", uploadsResourceHandler));
+        // After the controllers, ahead of Spring Boot's catch-all static resource mapping
+        mapping.setOrder(Ordered.LOWEST_PRECEDENCE - 2);
+        return mapping;
+    }
+}
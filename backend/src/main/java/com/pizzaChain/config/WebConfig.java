@@ -1,14 +1,27 @@
 package com.pizzaChain.config;
 
+import com.pizzaChain.diagnostics.AdminProperties;
+import com.pizzaChain.diagnostics.AdminTokenInterceptor;
+import com.pizzaChain.diagnostics.sql.RequestStatementTracker;
+import com.pizzaChain.ratelimit.RateLimitInterceptor;
+import com.pizzaChain.ratelimit.RateLimiter;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.*;
 
-import java.nio.file.Path;
-import java.nio.file.Paths;
-
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    private final RateLimiter rateLimiter;
+    private final AdminProperties adminProperties;
+    private final RequestStatementTracker requestStatementTracker;
+
+    public WebConfig(RateLimiter rateLimiter, AdminProperties adminProperties,
+                     RequestStatementTracker requestStatementTracker) {
+        this.rateLimiter = rateLimiter;
+        this.adminProperties = adminProperties;
+        this.requestStatementTracker = requestStatementTracker;
+    }
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
@@ -22,17 +35,25 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowCredentials(true);
     }
 
+    // Chat is limited inside ChatController so the widget still gets a friendly reply
     @Override
-    public void configurePathMatch(PathMatchConfigurer configurer) {
-        configurer.setUseTrailingSlashMatch(true);
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RateLimitInterceptor(rateLimiter, "feedback", "POST"))
+                .addPathPatterns("/api/feedback/*");
+        registry.addInterceptor(new RateLimitInterceptor(rateLimiter, "customer-create", "POST"))
+                .addPathPatterns("/api/customers", "/api/customers/");
+        // Bulk import and export touch every customer (and each export holds a connection for the
+        // whole scan), so they are admin operations
+        registry.addInterceptor(new AdminTokenInterceptor(adminProperties))
+                .addPathPatterns("/api/admin/**", "/api/customers/import", "/api/customers/export");
+        registry.addInterceptor(requestStatementTracker)
+                .addPathPatterns("/api/**");
     }
 
     @Override
-    public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        Path uploadDir = Paths.get("uploads");
-        String uploadPath = uploadDir.toFile().getAbsolutePath();
-
-        registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("file:" + uploadPath + "/");
+    public void configurePathMatch(PathMatchConfigurer configurer) {
+        configurer.setUseTrailingSlashMatch(true);
     }
+
+    // /uploads/** is served by UploadServingConfig
 }
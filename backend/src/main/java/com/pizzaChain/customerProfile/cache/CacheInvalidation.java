@@ -0,0 +1,9 @@
+package com.pizzaChain.customerProfile.cache;
+
+import java.util.UUID;
+
+/**
+ * A customer changed on the node {@code origin}; other nodes drop their cached copy.
+ * A null customerId means every cached customer is stale.
+ */
+public record CacheInvalidation(String origin, UUID customerId) {}
@@ -0,0 +1,15 @@
+package com.pizzaChain.customerProfile.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries customer invalidations between application nodes. Hibernate already keeps the
+ * local cache consistent; a multi-node deployment declares its own bean (Redis pub/sub,
+ * PostgreSQL LISTEN/NOTIFY, ...) so the other nodes evict too.
+ */
+public interface CacheInvalidationChannel {
+
+    void publish(CacheInvalidation invalidation);
+
+    void subscribe(Consumer<CacheInvalidation> listener);
+}
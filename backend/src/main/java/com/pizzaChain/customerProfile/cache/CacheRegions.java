@@ -0,0 +1,14 @@
+package com.pizzaChain.customerProfile.cache;
+
+/** Hibernate second-level cache region names; every region is created up front with its own bounds */
+public final class CacheRegions {
+
+    public static final String CUSTOMERS = "customers";
+    public static final String CUSTOMER_INTERESTS = "customers.interests";
+    // Hibernate's own names for the query cache and its table-change timestamps
+    public static final String QUERY_RESULTS = "default-query-results-region";
+    public static final String UPDATE_TIMESTAMPS = "default-update-timestamps-region";
+
+    private CacheRegions() {
+    }
+}
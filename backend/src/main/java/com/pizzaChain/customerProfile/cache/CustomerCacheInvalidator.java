@@ -0,0 +1,97 @@
+package com.pizzaChain.customerProfile.cache;
+
+import com.pizzaChain.customerProfile.model.Customer;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Publishes committed customer updates and deletes on the invalidation channel and applies
+ * invalidations coming from other nodes to this node's second-level cache.
+ */
+@Component
+public class CustomerCacheInvalidator implements PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerCacheInvalidator.class);
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final EntityManagerFactory entityManagerFactory;
+    private final CacheInvalidationChannel channel;
+
+    public CustomerCacheInvalidator(EntityManagerFactory entityManagerFactory, CacheInvalidationChannel channel) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.channel = channel;
+    }
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry listeners = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .requireService(EventListenerRegistry.class);
+        listeners.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        listeners.appendListeners(EventType.POST_COMMIT_DELETE, this);
+        channel.subscribe(this::apply);
+    }
+
+    /** For changes Hibernate sees no entity event for, such as bulk JPQL updates */
+    public void customerChanged(UUID customerId) {
+        channel.publish(new CacheInvalidation(nodeId, customerId));
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Customer customer) {
+            customerChanged(customer.getId());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Customer customer) {
+            customerChanged(customer.getId());
+        }
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return persister.getMappedClass() == Customer.class;
+    }
+
+    private void apply(CacheInvalidation invalidation) {
+        if (nodeId.equals(invalidation.origin())) {
+            return;
+        }
+        Cache cache = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getCache();
+        if (invalidation.customerId() == null) {
+            cache.evictEntityData(Customer.class);
+            cache.evictCollectionData(Customer.class.getName() + ".interests");
+        } else {
+            cache.evictEntityData(Customer.class, invalidation.customerId());
+            cache.evictCollectionData(Customer.class.getName() + ".interests", invalidation.customerId());
+        }
+        // Cached email/username lookups may now point at a changed or deleted row
+        cache.evictDefaultQueryRegion();
+        logger.debug("Applied customer cache invalidation from {}: {}", invalidation.origin(), invalidation.customerId());
+    }
+}
@@ -0,0 +1,22 @@
+package com.pizzaChain.customerProfile.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Second-level cache for customers (customer.cache.*).
+ *
+ * @param enabled       whether Hibernate's entity and query caches are used at all
+ * @param maxSize       customers (and, separately, interest lists) kept per node
+ * @param ttl           how long a cached customer may be served without going back to the database
+ * @param queryMaxSize  cached email/username lookups kept per node
+ * @param queryTtl      lifetime of a cached lookup
+ */
+@ConfigurationProperties("customer.cache")
+public record CustomerCacheProperties(@DefaultValue("true") boolean enabled,
+                                      @DefaultValue("10000") long maxSize,
+                                      @DefaultValue("10m") Duration ttl,
+                                      @DefaultValue("10000") long queryMaxSize,
+                                      @DefaultValue("10m") Duration queryTtl) {}
@@ -0,0 +1,15 @@
+package com.pizzaChain.customerProfile.cache;
+
+import java.util.function.Consumer;
+
+/** Single-node default: there is nobody else to tell */
+public class LocalCacheInvalidationChannel implements CacheInvalidationChannel {
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> listener) {
+    }
+}
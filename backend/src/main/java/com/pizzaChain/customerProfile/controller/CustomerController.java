@@ -1,12 +1,19 @@
 package com.pizzaChain.customerProfile.controller;
 
 import com.pizzaChain.customerProfile.dto.CreateCustomerDTO;
+import com.pizzaChain.customerProfile.dto.CursorPage;
 import com.pizzaChain.customerProfile.dto.UpdateCustomerDTO;
 import com.pizzaChain.customerProfile.dto.CustomerDTO;
+import com.pizzaChain.customerProfile.exporter.CustomerExportService;
+import com.pizzaChain.customerProfile.importer.CustomerImportService;
+import com.pizzaChain.customerProfile.importer.ImportReport;
 import com.pizzaChain.customerProfile.mapper.CustomerMapper;
 import com.pizzaChain.customerProfile.model.Customer;
 import com.pizzaChain.customerProfile.service.CustomerService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -19,9 +26,9 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.*;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/customers")
@@ -29,9 +36,19 @@ import java.util.stream.Collectors;
 @Validated
 public class CustomerController {
 
+    private static final Logger logger = LoggerFactory.getLogger(CustomerController.class);
+
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+
     @Autowired
     private CustomerService customerService;
 
+    @Autowired
+    private CustomerImportService customerImportService;
+
+    @Autowired
+    private CustomerExportService customerExportService;
+
     // ---------------- CREATE ----------------
 
     // JSON only
@@ -48,17 +65,64 @@ public class CustomerController {
             @Valid @RequestPart("customer") CreateCustomerDTO dto,
             @RequestPart(value = "photo", required = false) MultipartFile photo) {
 
-        String photoPath = savePhoto(photo);
-        if (photo != null && photoPath == null) {
+        Customer customer = CustomerMapper.toEntity(dto);
+        if (!savePhoto(customer, photo)) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
-
-        dto.setPhotoPath(photoPath);
-        Customer customer = CustomerMapper.toEntity(dto);
         Customer saved = customerService.createCustomer(customer);
         return ResponseEntity.status(HttpStatus.CREATED).body(CustomerMapper.toDTO(saved));
     }
 
+    // ---------------- BULK IMPORT ----------------
+
+    /**
+     * Streams a CSV (header row of field names) or NDJSON body; valid rows are inserted in batches.
+     * Requires the admin token (see WebConfig).
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ImportReport> importCustomers(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) throws IOException {
+        CustomerImportService.Format format = contentType.isCompatibleWith(MediaType.APPLICATION_NDJSON)
+                ? CustomerImportService.Format.NDJSON
+                : CustomerImportService.Format.CSV;
+        return ResponseEntity.ok(customerImportService.importCustomers(body, format));
+    }
+
+    // ---------------- EXPORT ----------------
+
+    /**
+     * Streams every customer as NDJSON (default) or CSV. Written synchronously on the request thread
+     * rather than as a StreamingResponseBody, so a long export is not cut off by the async request timeout.
+     * Requires the admin token (see WebConfig).
+     */
+    @GetMapping("/export")
+    public void exportCustomers(@RequestParam(defaultValue = "ndjson") String format,
+                                HttpServletResponse response) throws IOException {
+        CustomerExportService.Format exportFormat;
+        MediaType contentType;
+        switch (format.toLowerCase(Locale.ROOT)) {
+            case "csv" -> {
+                exportFormat = CustomerExportService.Format.CSV;
+                contentType = new MediaType("text", "csv", StandardCharsets.UTF_8);
+            }
+            case "ndjson" -> {
+                exportFormat = CustomerExportService.Format.NDJSON;
+                contentType = MediaType.APPLICATION_NDJSON;
+            }
+            default -> {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unsupported export format: " + format);
+                return;
+            }
+        }
+
+        response.setContentType(contentType.toString());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("customers." + format.toLowerCase(Locale.ROOT)).build().toString());
+        customerExportService.export(exportFormat, response.getOutputStream());
+    }
+
     // ---------------- UPDATE ----------------
 
     // multipart/form-data (JSON in "customer" + optional photo)
@@ -75,14 +139,10 @@ public class CustomerController {
 
         Customer existing = optionalCustomer.get();
 
-        if (photo != null && !photo.isEmpty()) {
-            String photoPath = savePhoto(photo);
-            if (photoPath != null) {
-                existing.setPhotoPath(photoPath);
-            }
-        }
-
         applyUpdates(existing, dto);
+        if (!savePhoto(existing, photo)) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
         Customer updated = customerService.updateCustomer(existing);
         return ResponseEntity.ok(CustomerMapper.toDTO(updated));
     }
@@ -106,39 +166,30 @@ public class CustomerController {
 
     @GetMapping
     public ResponseEntity<Page<CustomerDTO>> getAllCustomers(Pageable pageable) {
-        Page<Customer> page = customerService.getAllCustomers(pageable);
-        Page<CustomerDTO> dtoPage = page.map(CustomerMapper::toDTO);
-        return ResponseEntity.ok(dtoPage);
+        return ResponseEntity.ok(customerService.getCustomerPage(pageable));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<CustomerDTO> getCustomerById(@PathVariable UUID id) {
-        return customerService.getCustomerById(id)
-                .map(CustomerMapper::toDTO)
+        return customerService.findCustomer(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/email/{email}")
     public ResponseEntity<CustomerDTO> getCustomerByEmail(@PathVariable String email) {
-        return customerService.getCustomerByEmail(email)
-                .map(CustomerMapper::toDTO)
+        return customerService.findCustomerByEmail(email)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/name/{name}")
-    public ResponseEntity<List<CustomerDTO>> getCustomerByName(@PathVariable String name) {
+    public ResponseEntity<List<CustomerDTO>> getCustomerByName(
+            @PathVariable String name,
+            @ParameterObject Pageable pageable) {
         List<CustomerDTO> result = customerService
-                .getAllCustomers(Pageable.unpaged())
-                .getContent() // <-- FIXED: use getContent() before stream
-                .stream()
-                .filter(customer -> {
-                    String fullName = (customer.getFirstName() + " " + customer.getLastName()).toLowerCase();
-                    return fullName.contains(name.toLowerCase());
-                })
-                .map(CustomerMapper::toDTO)
-                .collect(Collectors.toList());
+                .getCustomersByName(name, pageable)
+                .getContent();
 
         return result.isEmpty() ? ResponseEntity.notFound().build() : ResponseEntity.ok(result);
     }
@@ -183,23 +234,14 @@ public class CustomerController {
         }
     }
 
-    /** Save uploaded photo to /uploads directory and return web path (/uploads/filename) */
-    private String savePhoto(MultipartFile photo) {
-        if (photo == null || photo.isEmpty()) return null;
-
+    /** Stream an optional uploaded photo to storage and point the customer at it; false if writing failed */
+    private boolean savePhoto(Customer customer, MultipartFile photo) {
         try {
-            String uploadDir = "uploads/";
-            String fileName = UUID.randomUUID() + "_" + Objects.requireNonNullElse(photo.getOriginalFilename(), "photo");
-            Path uploadPath = Paths.get(uploadDir);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
-            Path filePath = uploadPath.resolve(fileName);
-            Files.copy(photo.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-            return "/uploads/" + fileName;
+            customerService.attachPhoto(customer, photo);
+            return true;
         } catch (IOException e) {
-            e.printStackTrace();
-            return null;
+            logger.error("Failed to save uploaded photo", e);
+            return false;
         }
     }
 
@@ -216,8 +258,19 @@ public class CustomerController {
         return ResponseEntity.badRequest().body(body);
     }
 
+    /** Keyset-paginated search; follow nextCursor for deeper windows */
     @GetMapping("/search")
-    public ResponseEntity<Page<CustomerDTO>> searchCustomers(
+    public ResponseEntity<CursorPage<CustomerDTO>> searchCustomers(
+            @RequestParam String keyword,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        int boundedSize = Math.max(1, Math.min(size, MAX_SEARCH_PAGE_SIZE));
+        return ResponseEntity.ok(customerService.searchByNameOrEmail(keyword, cursor, boundedSize));
+    }
+
+    /** Offset-paginated search with totals; costs an extra count query, so only on request */
+    @GetMapping(value = "/search", params = "withTotal=true")
+    public ResponseEntity<Page<CustomerDTO>> searchCustomersWithTotal(
             @RequestParam String keyword,
             @ParameterObject Pageable pageable) {
         return ResponseEntity.ok(customerService.searchByNameOrEmail(keyword, pageable));
@@ -0,0 +1,9 @@
+package com.pizzaChain.customerProfile.dto;
+
+import java.util.List;
+
+/**
+ * One window of a keyset-paginated result.
+ * Pass nextCursor back as ?cursor= to fetch the following window; no total count is computed.
+ */
+public record CursorPage<T>(List<T> content, int size, boolean hasNext, String nextCursor) {}
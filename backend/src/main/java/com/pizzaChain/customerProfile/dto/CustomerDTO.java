@@ -19,6 +19,8 @@ public class CustomerDTO {
     private String state;
     private String city;
     private String photoPath;
+    private String photoThumbPath;
+    private String photoAvatarPath;
     private List<String> interests;
     private boolean newsletter;
     private boolean terms;
@@ -154,6 +156,22 @@ public class CustomerDTO {
         this.photoPath = photoPath;
     }
 
+    public String getPhotoThumbPath() {
+        return photoThumbPath;
+    }
+
+    public void setPhotoThumbPath(String photoThumbPath) {
+        this.photoThumbPath = photoThumbPath;
+    }
+
+    public String getPhotoAvatarPath() {
+        return photoAvatarPath;
+    }
+
+    public void setPhotoAvatarPath(String photoAvatarPath) {
+        this.photoAvatarPath = photoAvatarPath;
+    }
+
     public String getCity() {
         return city;
     }
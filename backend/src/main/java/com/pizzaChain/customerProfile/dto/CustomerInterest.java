@@ -0,0 +1,6 @@
+package com.pizzaChain.customerProfile.dto;
+
+import java.util.UUID;
+
+/** One (customer, interest) pair, for loading the interests of a page of {@link CustomerView}s at once */
+public record CustomerInterest(UUID customerId, String interest) {}
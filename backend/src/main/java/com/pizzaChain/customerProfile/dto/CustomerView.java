@@ -0,0 +1,14 @@
+package com.pizzaChain.customerProfile.dto;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Read-only row for list and search queries, selected with a JPQL constructor expression:
+ * no managed entity, no password, no snapshot. Interests are attached per page separately.
+ */
+public record CustomerView(UUID id, String firstName, String lastName, String email, String phone,
+                           String username, LocalDate dob, String gender, String address,
+                           String postalCode, String country, String state, String city,
+                           String photoPath, String photoThumbPath, String photoAvatarPath,
+                           String photoWebPath, Boolean newsletter, Boolean terms) {}
@@ -0,0 +1,34 @@
+package com.pizzaChain.customerProfile.dto;
+
+import com.pizzaChain.customerProfile.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Keyset position for customer search, ordered by (firstName, id).
+ * Serialized as an opaque URL-safe token so clients never build it themselves.
+ */
+public record SearchCursor(String firstName, UUID id) {
+
+    private static final char SEPARATOR = '\n';
+
+    public String encode() {
+        String raw = id + String.valueOf(SEPARATOR) + firstName;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SearchCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int split = raw.indexOf(SEPARATOR);
+            if (split < 0) {
+                throw new InvalidCursorException(token);
+            }
+            return new SearchCursor(raw.substring(split + 1), UUID.fromString(raw.substring(0, split)));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(token);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.pizzaChain.customerProfile.exception;
+
+import java.util.UUID;
+
+/**
+ * Thrown when a request refers to a customer that does not exist.
+ */
+public class CustomerNotFoundException extends RuntimeException {
+
+    public CustomerNotFoundException(UUID customerId) {
+        super("Customer not found: " + customerId);
+    }
+}
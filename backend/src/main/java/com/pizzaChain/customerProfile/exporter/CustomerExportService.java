@@ -0,0 +1,188 @@
+package com.pizzaChain.customerProfile.exporter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.pizzaChain.customerProfile.dto.CustomerDTO;
+import com.pizzaChain.customerProfile.mapper.CustomerMapper;
+import com.pizzaChain.customerProfile.model.Customer;
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Streams every customer to an output stream without loading the table: a forward-only cursor
+ * with a JDBC fetch size, read in windows of fetch-size customers whose interests are loaded with
+ * one query, written, then cleared from the persistence context so memory stays constant however
+ * many customers there are.
+ */
+@Service
+public class CustomerExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerExportService.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // Same field names as the import header; interests are ';'-separated there too
+    static final List<String> CSV_COLUMNS = List.of("id", "firstName", "lastName", "email", "phone", "username",
+            "dob", "gender", "address", "postalCode", "country", "state", "city", "interests",
+            "newsletter", "terms", "photoPath");
+
+    // Interests come from one query per window; a fetch join would repeat every customer column per interest
+    private static final String EXPORT_QUERY = "SELECT c FROM Customer c ORDER BY c.id";
+    private static final String INTERESTS_QUERY =
+            "SELECT c.id, i FROM Customer c JOIN c.interests i WHERE c.id IN :ids";
+
+    public enum Format { CSV, NDJSON }
+
+    private interface RowWriter {
+        void write(CustomerDTO customer) throws IOException;
+    }
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectWriter customerWriter;
+    private final int fetchSize;
+
+    public CustomerExportService(EntityManager entityManager,
+                                 PlatformTransactionManager transactionManager,
+                                 ObjectMapper objectMapper,
+                                 @Value("${customer.export.fetch-size:500}") int fetchSize) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // The cursor only stays open (and fetch size only applies on PostgreSQL) inside a transaction
+        this.transactionTemplate.setReadOnly(true);
+        this.customerWriter = objectMapper.writerFor(CustomerDTO.class);
+        this.fetchSize = fetchSize;
+    }
+
+    /** Writes all customers to {@code out} and returns how many were written; {@code out} is flushed, not closed */
+    public long export(Format format, OutputStream out) {
+        long start = System.nanoTime();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        RowWriter rowWriter = format == Format.CSV ? csvWriter(writer) : ndjsonWriter(writer);
+
+        Long exported = transactionTemplate.execute(status -> {
+            Session session = entityManager.unwrap(Session.class);
+            // On the session, not the query: scrolled rows load after scroll() has restored the query's mode
+            CacheMode previousCacheMode = session.getCacheMode();
+            session.setCacheMode(CacheMode.IGNORE);
+            List<Customer> window = new ArrayList<>(fetchSize);
+            try (ScrollableResults<Customer> rows = session
+                    .createSelectionQuery(EXPORT_QUERY, Customer.class)
+                    .setFetchSize(fetchSize)
+                    .setReadOnly(true)
+                    .scroll(ScrollMode.FORWARD_ONLY)) {
+                long count = 0;
+                while (rows.next()) {
+                    window.add(rows.get());
+                    if (window.size() == fetchSize) {
+                        count += writeWindow(session, window, rowWriter);
+                    }
+                }
+                count += writeWindow(session, window, rowWriter);
+                writer.flush();
+                return count;
+            } catch (IOException e) {
+                // Usually the client went away mid-download
+                throw new UncheckedIOException(e);
+            } finally {
+                session.setCacheMode(previousCacheMode);
+            }
+        });
+
+        logger.info("Exported {} customers as {} in {} ms", exported, format, (System.nanoTime() - start) / 1_000_000);
+        return exported;
+    }
+
+    /** Writes a window of customers with their interests from one query, then drops them from the session */
+    private int writeWindow(Session session, List<Customer> window, RowWriter rowWriter) throws IOException {
+        if (window.isEmpty()) {
+            return 0;
+        }
+        Map<UUID, List<String>> interests = new HashMap<>();
+        session.createSelectionQuery(INTERESTS_QUERY, Object[].class)
+                .setParameter("ids", window.stream().map(Customer::getId).toList())
+                .setReadOnly(true)
+                .getResultList()
+                .forEach(row -> interests.computeIfAbsent((UUID) row[0], id -> new ArrayList<>()).add((String) row[1]));
+
+        for (Customer customer : window) {
+            CustomerDTO dto = CustomerMapper.toDTO(customer);
+            // Replaces the lazy collection, which would otherwise load one customer at a time
+            dto.setInterests(interests.getOrDefault(customer.getId(), List.of()));
+            rowWriter.write(dto);
+        }
+        int written = window.size();
+        window.clear();
+        session.clear();
+        return written;
+    }
+
+    private RowWriter ndjsonWriter(Writer writer) {
+        return customer -> {
+            writer.write(customerWriter.writeValueAsString(customer));
+            writer.write('\n');
+        };
+    }
+
+    private RowWriter csvWriter(Writer writer) {
+        try {
+            writeCsvRecord(writer, CSV_COLUMNS);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return customer -> writeCsvRecord(writer, List.of(
+                text(customer.getId()), text(customer.getFirstName()), text(customer.getLastName()),
+                text(customer.getEmail()), text(customer.getPhone()), text(customer.getUsername()),
+                text(customer.getDob()), text(customer.getGender()), text(customer.getAddress()),
+                text(customer.getPostalCode()), text(customer.getCountry()), text(customer.getState()),
+                text(customer.getCity()),
+                customer.getInterests() == null ? "" : String.join(";", customer.getInterests()),
+                String.valueOf(customer.isNewsletter()), String.valueOf(customer.isTerms()),
+                text(customer.getPhotoPath())));
+    }
+
+    private static String text(Object value) {
+        return value == null ? "" : value.toString();
+    }
+
+    /** RFC 4180: fields with a comma, quote or line break are quoted, quotes doubled */
+    static void writeCsvRecord(Writer writer, List<String> fields) throws IOException {
+        for (int i = 0; i < fields.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            String field = fields.get(i);
+            if (field.indexOf(',') >= 0 || field.indexOf('"') >= 0
+                    || field.indexOf('\n') >= 0 || field.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(field.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(field);
+            }
+        }
+        writer.write("\r\n");
+    }
+}
@@ -0,0 +1,293 @@
+package com.pizzaChain.customerProfile.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.pizzaChain.customerProfile.dto.CreateCustomerDTO;
+import com.pizzaChain.customerProfile.mapper.CustomerMapper;
+import com.pizzaChain.customerProfile.repository.CustomerRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk customer import. The body is parsed row by row (CSV with a header row of
+ * CreateCustomerDTO property names, or NDJSON), each row is validated like a single create,
+ * and valid rows are inserted in chunks: one transaction per chunk, JDBC-batched inserts,
+ * persistence context cleared after every chunk so memory stays flat. Duplicate emails are
+ * caught within a chunk in memory and across chunks by the registered-email check (an earlier
+ * chunk is already committed), so nothing is kept per row of the whole file.
+ */
+@Service
+public class CustomerImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerImportService.class);
+
+    private static final int MAX_REPORTED_ERRORS = 500;
+    private static final String INTERESTS_SEPARATOR = ";";
+
+    public enum Format { CSV, NDJSON }
+
+    /** A parsed row, or the reason it could not be parsed */
+    private record Row(long line, CreateCustomerDTO customer, String parseError) {}
+
+    private final CustomerRepository customerRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader customerReader;
+    private final int chunkSize;
+
+    public CustomerImportService(CustomerRepository customerRepository,
+                                 EntityManager entityManager,
+                                 PlatformTransactionManager transactionManager,
+                                 Validator validator,
+                                 ObjectMapper objectMapper,
+                                 @Value("${customer.import.chunk-size:1000}") int chunkSize) {
+        this.customerRepository = customerRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.customerReader = objectMapper.readerFor(CreateCustomerDTO.class);
+        this.chunkSize = chunkSize;
+    }
+
+    public ImportReport importCustomers(InputStream body, Format format) throws IOException {
+        long start = System.nanoTime();
+        Progress progress = new Progress();
+        Set<String> chunkEmails = new HashSet<>();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        RowSource rows = format == Format.CSV ? new CsvRows(new CsvRecordReader(reader)) : new NdjsonRows(reader);
+        Row row;
+        while ((row = rows.next()) != null) {
+            progress.rowsRead++;
+            if (row.parseError() != null) {
+                progress.fail(row.line(), Map.of("row", row.parseError()));
+                continue;
+            }
+            Map<String, String> violations = validate(row.customer());
+            if (!violations.isEmpty()) {
+                progress.fail(row.line(), violations);
+                continue;
+            }
+            if (!chunkEmails.add(row.customer().getEmail())) {
+                progress.fail(row.line(), Map.of("email", "Email appears earlier in this import."));
+                continue;
+            }
+            chunk.add(row);
+            if (chunk.size() == chunkSize) {
+                insertChunk(chunk, progress);
+                chunk.clear();
+                chunkEmails.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            insertChunk(chunk, progress);
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        ImportReport report = progress.toReport(elapsedNanos);
+        logger.info("Imported {} of {} customers in {} ms ({} rows/s), {} rejected",
+                report.imported(), report.rowsRead(), report.durationMillis(),
+                Math.round(report.rowsPerSecond()), report.failed());
+        return report;
+    }
+
+    private Map<String, String> validate(CreateCustomerDTO customer) {
+        Set<ConstraintViolation<CreateCustomerDTO>> violations = validator.validate(customer);
+        if (violations.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, String> errors = new LinkedHashMap<>();
+        for (ConstraintViolation<CreateCustomerDTO> violation : violations) {
+            errors.put(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        return errors;
+    }
+
+    private void insertChunk(List<Row> chunk, Progress progress) {
+        // One query per chunk instead of an exists-check per row
+        Set<String> registered = customerRepository.findExistingEmails(
+                chunk.stream().map(row -> row.customer().getEmail()).toList());
+        List<Row> fresh = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            if (registered.contains(row.customer().getEmail())) {
+                progress.fail(row.line(), Map.of("email", "Email is already registered."));
+            } else {
+                fresh.add(row);
+            }
+        }
+        if (fresh.isEmpty()) {
+            return;
+        }
+
+        try {
+            persist(fresh);
+            progress.imported += fresh.size();
+        } catch (RuntimeException e) {
+            // Typically a unique key taken concurrently; find the offending rows one by one
+            logger.warn("Import chunk of {} rows failed, retrying row by row: {}",
+                    fresh.size(), NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            for (Row row : fresh) {
+                try {
+                    persist(List.of(row));
+                    progress.imported++;
+                } catch (RuntimeException rowFailure) {
+                    progress.fail(row.line(), Map.of("row",
+                            NestedExceptionUtils.getMostSpecificCause(rowFailure).getMessage()));
+                }
+            }
+        }
+    }
+
+    private void persist(List<Row> rows) {
+        transactionTemplate.executeWithoutResult(status -> {
+            // Bulk rows would only churn the second-level cache
+            entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+            try {
+                for (Row row : rows) {
+                    entityManager.persist(CustomerMapper.toEntity(row.customer()));
+                }
+                entityManager.flush();
+            } finally {
+                entityManager.clear();
+            }
+        });
+    }
+
+    private interface RowSource {
+        Row next() throws IOException;
+    }
+
+    private final class NdjsonRows implements RowSource {
+
+        private final BufferedReader reader;
+        private long line;
+
+        NdjsonRows(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                try {
+                    return new Row(line, customerReader.readValue(text), null);
+                } catch (IOException e) {
+                    return new Row(line, null, "Invalid JSON: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                }
+            }
+            return null;
+        }
+    }
+
+    private final class CsvRows implements RowSource {
+
+        private final CsvRecordReader records;
+        private List<String> header;
+
+        CsvRows(CsvRecordReader records) {
+            this.records = records;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            if (header == null) {
+                header = records.next();
+                if (header == null) {
+                    return null;
+                }
+                header = header.stream().map(String::trim).toList();
+            }
+            List<String> fields;
+            while ((fields = records.next()) != null) {
+                if (fields.size() == 1 && fields.get(0).isBlank()) {
+                    continue;
+                }
+                long line = records.recordLine();
+                if (fields.size() != header.size()) {
+                    return new Row(line, null, "Expected " + header.size() + " columns but found " + fields.size());
+                }
+                try {
+                    return new Row(line, objectMapper.treeToValue(toJson(fields), CreateCustomerDTO.class), null);
+                } catch (IOException | IllegalArgumentException e) {
+                    return new Row(line, null, "Invalid value: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                }
+            }
+            return null;
+        }
+
+        /** Empty cells stay absent so the DTO constraints report them; interests are ';'-separated */
+        private ObjectNode toJson(List<String> fields) {
+            ObjectNode node = objectMapper.createObjectNode();
+            for (int i = 0; i < fields.size(); i++) {
+                String value = fields.get(i).trim();
+                if (value.isEmpty()) {
+                    continue;
+                }
+                if (header.get(i).equals("interests")) {
+                    ArrayNode interests = node.putArray("interests");
+                    for (String interest : value.split(INTERESTS_SEPARATOR)) {
+                        if (!interest.isBlank()) {
+                            interests.add(interest.trim());
+                        }
+                    }
+                } else {
+                    node.put(header.get(i), value);
+                }
+            }
+            return node;
+        }
+    }
+
+    private static final class Progress {
+        long rowsRead;
+        long imported;
+        long failed;
+        final List<ImportReport.RowError> errors = new ArrayList<>();
+
+        void fail(long line, Map<String, String> reasons) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportReport.RowError(line, reasons));
+            }
+        }
+
+        ImportReport toReport(long elapsedNanos) {
+            double seconds = elapsedNanos / 1e9;
+            return new ImportReport(rowsRead, imported, failed, elapsedNanos / 1_000_000,
+                    seconds > 0 ? rowsRead / seconds : 0, List.copyOf(errors), failed > errors.size());
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.pizzaChain.customerProfile.importer;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of a bulk import. Errors are keyed by the 1-based line of the row in the upload;
+ * only the first few hundred are listed, the count is always exact.
+ */
+public record ImportReport(long rowsRead,
+                           long imported,
+                           long failed,
+                           long durationMillis,
+                           double rowsPerSecond,
+                           List<RowError> errors,
+                           boolean errorsTruncated) {
+
+    public record RowError(long line, Map<String, String> errors) {}
+}
@@ -3,8 +3,11 @@ package com.pizzaChain.customerProfile.mapper;
 import com.pizzaChain.customerProfile.dto.CreateCustomerDTO;
 import com.pizzaChain.customerProfile.dto.UpdateCustomerDTO;
 import com.pizzaChain.customerProfile.dto.CustomerDTO;
+import com.pizzaChain.customerProfile.dto.CustomerView;
 import com.pizzaChain.customerProfile.model.Customer;
 
+import java.util.List;
+
 public class CustomerMapper {
 
     // Converts entity to DTO
@@ -23,13 +26,41 @@ public class CustomerMapper {
         dto.setCountry(user.getCountry());
         dto.setState(user.getState());
         dto.setCity(user.getCity());
-        dto.setPhotoPath(user.getPhotoPath());
+        // Web-sized variant for display; the original until the variants are ready
+        dto.setPhotoPath(orElse(user.getPhotoWebPath(), user.getPhotoPath()));
+        dto.setPhotoThumbPath(orElse(user.getPhotoThumbPath(), dto.getPhotoPath()));
+        dto.setPhotoAvatarPath(orElse(user.getPhotoAvatarPath(), dto.getPhotoPath()));
         dto.setInterests(user.getInterests());
         dto.setNewsletter(user.isNewsletter());
         dto.setTerms(user.isTerms());
         return dto;
     }
 
+    // Converts a read-only projection row (plus its interests) to DTO
+    public static CustomerDTO toDTO(CustomerView view, List<String> interests) {
+        CustomerDTO dto = new CustomerDTO();
+        dto.setId(view.id());
+        dto.setFirstName(view.firstName());
+        dto.setLastName(view.lastName());
+        dto.setEmail(view.email());
+        dto.setPhone(view.phone());
+        dto.setUsername(view.username());
+        dto.setDob(view.dob());
+        dto.setGender(view.gender());
+        dto.setAddress(view.address());
+        dto.setPostalCode(view.postalCode());
+        dto.setCountry(view.country());
+        dto.setState(view.state());
+        dto.setCity(view.city());
+        dto.setPhotoPath(orElse(view.photoWebPath(), view.photoPath()));
+        dto.setPhotoThumbPath(orElse(view.photoThumbPath(), dto.getPhotoPath()));
+        dto.setPhotoAvatarPath(orElse(view.photoAvatarPath(), dto.getPhotoPath()));
+        dto.setInterests(interests);
+        dto.setNewsletter(Boolean.TRUE.equals(view.newsletter()));
+        dto.setTerms(Boolean.TRUE.equals(view.terms()));
+        return dto;
+    }
+
     // Converts CreateCustomerDTO to Entity (for creation)
     public static Customer toEntity(CreateCustomerDTO dto) {
         Customer user = new Customer();
@@ -101,4 +132,8 @@ public class CustomerMapper {
             existing.setPhotoPath(dto.getPhotoPath());
         }
     }
+
+    private static String orElse(String value, String fallback) {
+        return value != null ? value : fallback;
+    }
 }
\ No newline at end of file
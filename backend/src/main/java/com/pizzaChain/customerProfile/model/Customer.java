@@ -1,14 +1,21 @@
 package com.pizzaChain.customerProfile.model;
 
+import com.pizzaChain.customerProfile.cache.CacheRegions;
 import com.pizzaChain.feedback.model.CustomerFeedback;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
 
 @Entity
 @Table(name = "customers")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.CUSTOMERS)
 public class Customer {
 
     @OneToMany(mappedBy = "customer", cascade = CascadeType.REMOVE, orphanRemoval = true)
@@ -16,7 +23,8 @@ public class Customer {
 
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    // Generated in the JVM, so inserts need no round trip for the key and can be JDBC-batched
+    @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
 
     @Column(nullable = false)
@@ -51,7 +59,15 @@ public class Customer {
 
     private String photoPath;
 
+    // Resized copies of photoPath, filled in once background processing finishes
+    private String photoThumbPath;
+    private String photoAvatarPath;
+    private String photoWebPath;
+
+    // Lists load a page of customers at once; their interests follow in one query, not one per row
     @ElementCollection
+    @BatchSize(size = 100)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.CUSTOMER_INTERESTS)
     private List<String> interests;
 
     private Boolean newsletter;
@@ -187,9 +203,39 @@ public class Customer {
     }
 
     public void setPhotoPath(String photoPath) {
+        if (!Objects.equals(this.photoPath, photoPath)) {
+            // Variants of the previous photo no longer apply
+            this.photoThumbPath = null;
+            this.photoAvatarPath = null;
+            this.photoWebPath = null;
+        }
         this.photoPath = photoPath;
     }
 
+    public String getPhotoThumbPath() {
+        return photoThumbPath;
+    }
+
+    public void setPhotoThumbPath(String photoThumbPath) {
+        this.photoThumbPath = photoThumbPath;
+    }
+
+    public String getPhotoAvatarPath() {
+        return photoAvatarPath;
+    }
+
+    public void setPhotoAvatarPath(String photoAvatarPath) {
+        this.photoAvatarPath = photoAvatarPath;
+    }
+
+    public String getPhotoWebPath() {
+        return photoWebPath;
+    }
+
+    public void setPhotoWebPath(String photoWebPath) {
+        this.photoWebPath = photoWebPath;
+    }
+
     public List<String> getInterests() {
         return interests;
     }
@@ -1,21 +1,43 @@
 package com.pizzaChain.customerProfile.repository;
 
+import com.pizzaChain.customerProfile.dto.CustomerInterest;
+import com.pizzaChain.customerProfile.dto.CustomerView;
 import com.pizzaChain.customerProfile.model.Customer;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, UUID> {
 
+    // Read path for lists and searches: rows straight into CustomerView, no entity hydration
+    String CUSTOMER_VIEW = """
+            new com.pizzaChain.customerProfile.dto.CustomerView(
+                c.id, c.firstName, c.lastName, c.email, c.phone, c.username, c.dob, c.gender, c.address,
+                c.postalCode, c.country, c.state, c.city,
+                c.photoPath, c.photoThumbPath, c.photoAvatarPath, c.photoWebPath, c.newsletter, c.terms)
+            """;
+
+    // Natural-key lookups go through the query cache; the row itself comes from the entity cache
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     Optional<Customer> findByEmail(String email);
 
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     Optional<Customer> findByUsername(String username);
 
     boolean existsByUsername(String username);
@@ -27,14 +49,68 @@ public interface CustomerRepository extends JpaRepository<Customer, UUID> {
 
     boolean existsByUsernameAndIdNot(String username, UUID id);
 
-    @Query("""
-       SELECT c FROM Customer c
-       WHERE 
-           LOWER(c.firstName) LIKE LOWER(:keyword)
-        OR LOWER(c.lastName) LIKE LOWER(:keyword)
-        OR LOWER(CONCAT(c.firstName, ' ', c.lastName)) LIKE LOWER(:keyword)
-        OR LOWER(c.email) LIKE LOWER(CONCAT('%', :keyword, '%'))
+    // Row-locked load for read-check-write updates; bypasses the second-level cache
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Customer c WHERE c.id = :id")
+    Optional<Customer> findByIdForUpdate(@Param("id") UUID id);
+
+    // Bulk import: which of these emails are taken, in one round trip
+    @Query("SELECT c.email FROM Customer c WHERE c.email IN :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    // Photo references into the content-addressed store; the photo GC treats these as the live set
+    @Query("SELECT DISTINCT c.photoPath FROM Customer c WHERE c.photoPath LIKE :prefix")
+    Set<String> findPhotoPathsStartingWith(@Param("prefix") String prefix);
+
+    @Query(value = "SELECT " + CUSTOMER_VIEW + " FROM Customer c",
+           countQuery = "SELECT COUNT(c) FROM Customer c")
+    Page<CustomerView> findAllViews(Pageable pageable);
+
+    @Query("SELECT new com.pizzaChain.customerProfile.dto.CustomerInterest(c.id, i) "
+           + "FROM Customer c JOIN c.interests i WHERE c.id IN :ids")
+    List<CustomerInterest> findInterests(@Param("ids") Collection<UUID> ids);
+
+    // Search predicates below are written to match the expression indexes in db/indexes.sql;
+    // :pattern must already be a lower-cased, escaped "%term%" LIKE pattern.
+
+    @Query(value = "SELECT " + CUSTOMER_VIEW + """
+       FROM Customer c
+       WHERE LOWER(CONCAT(c.firstName, ' ', c.lastName)) LIKE :pattern ESCAPE '\\'
+          OR LOWER(c.email) LIKE :pattern ESCAPE '\\'
+       """, countQuery = """
+       SELECT COUNT(c) FROM Customer c
+       WHERE LOWER(CONCAT(c.firstName, ' ', c.lastName)) LIKE :pattern ESCAPE '\\'
+          OR LOWER(c.email) LIKE :pattern ESCAPE '\\'
+       """)
+    Page<CustomerView> searchByNameOrEmail(@Param("pattern") String pattern, Pageable pageable);
+
+    // Keyset variants ordered by (firstName, id): no OFFSET and no count(*)
+    @Query("SELECT " + CUSTOMER_VIEW + """
+       FROM Customer c
+       WHERE (LOWER(CONCAT(c.firstName, ' ', c.lastName)) LIKE :pattern ESCAPE '\\'
+           OR LOWER(c.email) LIKE :pattern ESCAPE '\\')
+       ORDER BY c.firstName, c.id
+       """)
+    Slice<CustomerView> searchByNameOrEmailFirst(@Param("pattern") String pattern, Pageable limit);
+
+    @Query("SELECT " + CUSTOMER_VIEW + """
+       FROM Customer c
+       WHERE (LOWER(CONCAT(c.firstName, ' ', c.lastName)) LIKE :pattern ESCAPE '\\'
+           OR LOWER(c.email) LIKE :pattern ESCAPE '\\')
+         AND (c.firstName > :afterFirstName
+           OR (c.firstName = :afterFirstName AND c.id > :afterId))
+       ORDER BY c.firstName, c.id
+       """)
+    Slice<CustomerView> searchByNameOrEmailAfter(@Param("pattern") String pattern,
+                                                 @Param("afterFirstName") String afterFirstName,
+                                                 @Param("afterId") UUID afterId,
+                                                 Pageable limit);
+
+    // Matches idx_customers_full_name_trgm
+    @Query("SELECT " + CUSTOMER_VIEW + """
+       FROM Customer c
+       WHERE LOWER(CONCAT(c.firstName, ' ', c.lastName)) LIKE :pattern ESCAPE '\\'
        """)
-    Page<Customer> searchByNameOrEmail(@Param("keyword") String keyword, Pageable pageable);
+    Slice<CustomerView> searchByFullName(@Param("pattern") String pattern, Pageable pageable);
 
 }
\ No newline at end of file
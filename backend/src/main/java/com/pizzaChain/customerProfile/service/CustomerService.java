@@ -1,39 +1,76 @@
 package com.pizzaChain.customerProfile.service;
 
+import com.pizzaChain.customerProfile.dto.CursorPage;
 import com.pizzaChain.customerProfile.dto.CustomerDTO;
+import com.pizzaChain.customerProfile.dto.CustomerInterest;
+import com.pizzaChain.customerProfile.dto.CustomerView;
+import com.pizzaChain.customerProfile.dto.SearchCursor;
 import com.pizzaChain.customerProfile.mapper.CustomerMapper;
 import com.pizzaChain.customerProfile.model.Customer;
 import com.pizzaChain.customerProfile.repository.CustomerRepository;
+import com.pizzaChain.customerProfile.storage.PhotoStorageService;
+import com.pizzaChain.customerProfile.storage.PhotoVariants;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.*;
 
 @Service
 public class CustomerService {
 
+    private static final Logger logger = LoggerFactory.getLogger(CustomerService.class);
+
     @Autowired
     private CustomerRepository customerRepository;
 
+    @Autowired
+    private PhotoStorageService photoStorageService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     // === CREATE ===
     public Customer createCustomer(Customer customer) {
         if (Optional.ofNullable(customer.getPassword()).orElse("").isBlank()) {
             customer.setPassword("defaultPass123");
         }
-        return customerRepository.save(customer);
+        Customer saved = customerRepository.save(customer);
+        requestPhotoVariants(saved);
+        return saved;
     }
 
     // === READ ===
-    public Page<Customer> getAllCustomers(Pageable pageable) {
-        return customerRepository.findAll(pageable);
+    // Read-only transactions: Hibernate flush mode MANUAL and no dirty-checking snapshots.
+    // Lists and searches go through CustomerView projections and never hydrate entities.
+
+    @Transactional(readOnly = true)
+    public Page<CustomerDTO> getCustomerPage(Pageable pageable) {
+        Page<CustomerView> page = customerRepository.findAllViews(pageable);
+        Map<UUID, List<String>> interests = interestsOf(page);
+        return page.map(view -> toDTO(view, interests));
+    }
+
+    /** Single customer for display; served from the second-level cache when warm */
+    @Transactional(readOnly = true)
+    public Optional<CustomerDTO> findCustomer(UUID id) {
+        return customerRepository.findById(id).map(CustomerService::toInitializedDTO);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<CustomerDTO> findCustomerByEmail(String email) {
+        return customerRepository.findByEmail(email).map(CustomerService::toInitializedDTO);
     }
 
     public List<Customer> getAllCustomers() {
@@ -48,11 +85,11 @@ public class CustomerService {
         return customerRepository.findByEmail(email);
     }
 
-    public List<Customer> getCustomersByName(String name) {
-        String nameLower = name.toLowerCase();
-        return customerRepository.findAll().stream()
-                .filter(c -> (c.getFirstName() + " " + c.getLastName()).toLowerCase().contains(nameLower))
-                .toList();
+    @Transactional(readOnly = true)
+    public Slice<CustomerDTO> getCustomersByName(String name, Pageable pageable) {
+        Slice<CustomerView> slice = customerRepository.searchByFullName(containsPattern(name), pageable);
+        Map<UUID, List<String>> interests = interestsOf(slice);
+        return slice.map(view -> toDTO(view, interests));
     }
 
     public Optional<Customer> getCustomerByUsername(String username) {
@@ -93,36 +130,117 @@ public class CustomerService {
             existing.setPhotoPath(updates.getPhotoPath());
         }
 
-        return customerRepository.save(existing);
+        return updateCustomer(existing);
     }
 
-    // === Save photo file ===
-    public String savePhoto(MultipartFile photo) throws IOException {
-        if (photo == null || photo.isEmpty()) {
-            return null;
+    // === Photo ===
+    /** Streams the upload to disk and points the customer at it; resized variants follow after save */
+    public void attachPhoto(Customer customer, MultipartFile photo) throws IOException {
+        String photoPath = photoStorageService.store(photo);
+        if (photoPath != null) {
+            customer.setPhotoPath(photoPath);
         }
+    }
 
-        String uploadDir = "uploads/photos/"; // relative directory inside project root
-        File dir = new File(uploadDir);
-        if (!dir.exists()) {
-            dir.mkdirs();
+    /** Queues variant generation for a saved customer whose current photo has none yet */
+    private void requestPhotoVariants(Customer customer) {
+        String photoPath = customer.getPhotoPath();
+        if (photoPath == null || customer.getPhotoWebPath() != null) {
+            return;
         }
+        UUID id = customer.getId();
+        photoStorageService.generateVariants(photoPath)
+                .thenAccept(variants -> applyPhotoVariants(id, photoPath, variants))
+                .exceptionally(e -> {
+                    logger.warn("Serving original photo {}; variants not generated: {}", photoPath, e.getMessage());
+                    return null;
+                });
+    }
 
-        String fileName = UUID.randomUUID() + "_" + Objects.requireNonNull(photo.getOriginalFilename());
-        Path filePath = Paths.get(uploadDir, fileName);
-        Files.write(filePath, photo.getBytes());
-
-        // return relative path for frontend (example: "/uploads/photos/abc.jpg")
-        return "/" + uploadDir + fileName;
+    /**
+     * Writes the variants through the managed entity, so Hibernate replaces just this customer's
+     * cache entry (and publishes the change to other nodes) where a bulk UPDATE would empty the
+     * whole region. The row lock keeps the photo check and the write atomic; variants are only
+     * applied if the customer still has that photo.
+     */
+    private void applyPhotoVariants(UUID id, String photoPath, PhotoVariants variants) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                customerRepository.findByIdForUpdate(id)
+                        .filter(customer -> photoPath.equals(customer.getPhotoPath()))
+                        .ifPresent(customer -> {
+                            customer.setPhotoThumbPath(variants.thumbPath());
+                            customer.setPhotoAvatarPath(variants.avatarPath());
+                            customer.setPhotoWebPath(variants.webPath());
+                        }));
     }
+
     // === Update after controller has already applied changes ===
     public Customer updateCustomer(Customer customer) {
-        return customerRepository.save(customer);
+        Customer saved = customerRepository.save(customer);
+        requestPhotoVariants(saved);
+        return saved;
     }
 
+    @Transactional(readOnly = true)
     public Page<CustomerDTO> searchByNameOrEmail(String keyword, Pageable pageable) {
-        return customerRepository.searchByNameOrEmail(keyword, pageable)
-                .map(CustomerMapper::toDTO);
+        Page<CustomerView> page = customerRepository.searchByNameOrEmail(containsPattern(keyword), pageable);
+        Map<UUID, List<String>> interests = interestsOf(page);
+        return page.map(view -> toDTO(view, interests));
+    }
+
+    /** Keyset search: pass the previous window's nextCursor, or null for the first window */
+    @Transactional(readOnly = true)
+    public CursorPage<CustomerDTO> searchByNameOrEmail(String keyword, String cursor, int size) {
+        String pattern = containsPattern(keyword);
+        PageRequest limit = PageRequest.ofSize(size);
+
+        Slice<CustomerView> slice;
+        if (cursor == null || cursor.isBlank()) {
+            slice = customerRepository.searchByNameOrEmailFirst(pattern, limit);
+        } else {
+            SearchCursor after = SearchCursor.decode(cursor);
+            slice = customerRepository.searchByNameOrEmailAfter(pattern, after.firstName(), after.id(), limit);
+        }
+
+        Map<UUID, List<String>> interests = interestsOf(slice);
+        List<CustomerDTO> content = slice.map(view -> toDTO(view, interests)).getContent();
+        String nextCursor = null;
+        if (slice.hasNext() && !content.isEmpty()) {
+            CustomerDTO last = content.get(content.size() - 1);
+            nextCursor = new SearchCursor(last.getFirstName(), last.getId()).encode();
+        }
+        return new CursorPage<>(content, size, slice.hasNext(), nextCursor);
+    }
+
+    /** Interests of every customer in the window, in one query */
+    private Map<UUID, List<String>> interestsOf(Slice<CustomerView> views) {
+        if (!views.hasContent()) {
+            return Map.of();
+        }
+        Map<UUID, List<String>> interests = new HashMap<>();
+        for (CustomerInterest row : customerRepository.findInterests(views.map(CustomerView::id).getContent())) {
+            interests.computeIfAbsent(row.customerId(), id -> new ArrayList<>()).add(row.interest());
+        }
+        return interests;
+    }
+
+    private static CustomerDTO toDTO(CustomerView view, Map<UUID, List<String>> interests) {
+        return CustomerMapper.toDTO(view, interests.getOrDefault(view.id(), List.of()));
+    }
+
+    /** Maps inside the transaction, loading interests while the session is still open */
+    private static CustomerDTO toInitializedDTO(Customer customer) {
+        Hibernate.initialize(customer.getInterests());
+        return CustomerMapper.toDTO(customer);
+    }
+
+    /** Builds a lower-cased "%term%" LIKE pattern, escaping the wildcards the user typed */
+    private static String containsPattern(String term) {
+        String escaped = term.trim().toLowerCase()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
     }
 
 
@@ -0,0 +1,60 @@
+package com.pizzaChain.customerProfile.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.core.io.Resource;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.function.Function;
+
+/**
+ * Strong ETag from the SHA-256 of the file content. Each file version is hashed once and the
+ * result kept in a bounded cache, so conditional requests cost a stat(), not a read.
+ */
+public class ContentHashEtagGenerator implements Function<Resource, String> {
+
+    private static final int ETAG_BYTES = 16;
+
+    private final Cache<FileVersion, String> hashes;
+
+    public ContentHashEtagGenerator(long maxEntries) {
+        this.hashes = Caffeine.newBuilder().maximumSize(maxEntries).build();
+    }
+
+    @Override
+    public String apply(Resource resource) {
+        try {
+            if (!resource.isFile()) {
+                return null;
+            }
+            File file = resource.getFile();
+            return hashes.get(FileVersion.of(file), version -> hash(file));
+        } catch (IOException | UncheckedIOException e) {
+            // No ETag; Last-Modified still allows revalidation
+            return null;
+        }
+    }
+
+    private static String hash(File file) {
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return HexFormat.of().formatHex(digest.digest(), 0, ETAG_BYTES);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
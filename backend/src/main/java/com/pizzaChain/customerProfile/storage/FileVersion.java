@@ -0,0 +1,11 @@
+package com.pizzaChain.customerProfile.storage;
+
+import java.io.File;
+
+/** Identifies one version of a file on disk; a rewrite changes lastModified or length */
+record FileVersion(String path, long lastModified, long length) {
+
+    static FileVersion of(File file) {
+        return new FileVersion(file.getPath(), file.lastModified(), file.length());
+    }
+}
@@ -0,0 +1,127 @@
+package com.pizzaChain.customerProfile.storage;
+
+import com.pizzaChain.customerProfile.repository.CustomerRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Removes stored photos that no customer points at any more. Reference counts are derived
+ * from Customer.photoPath on every sweep rather than kept in a separate table, so they can't
+ * drift: a digest is live while at least one customer references it. The original and its
+ * variants go together once the file is older than the grace period. The age is checked again
+ * under the storage service's digest lock right before deleting, because an identical upload may
+ * have reused the file since the directory was listed.
+ */
+@Component
+public class PhotoGarbageCollector {
+
+    private static final Logger logger = LoggerFactory.getLogger(PhotoGarbageCollector.class);
+
+    private final PhotoStorageService photoStorageService;
+    private final CustomerRepository customerRepository;
+    private final PhotoStorageProperties.Gc properties;
+
+    public PhotoGarbageCollector(PhotoStorageService photoStorageService,
+                                 CustomerRepository customerRepository,
+                                 PhotoStorageProperties properties) {
+        this.photoStorageService = photoStorageService;
+        this.customerRepository = customerRepository;
+        this.properties = properties.gc();
+    }
+
+    @Scheduled(fixedDelayString = "${uploads.gc.interval:1h}", initialDelayString = "${uploads.gc.interval:1h}")
+    public void scheduledSweep() {
+        if (properties.enabled()) {
+            sweep();
+        }
+    }
+
+    /** Deletes unreferenced files older than the grace period; returns how many were removed */
+    public int sweep() {
+        Path casRoot = photoStorageService.casRoot();
+        if (!Files.isDirectory(casRoot)) {
+            return 0;
+        }
+
+        Set<String> liveDigests = customerRepository.findPhotoPathsStartingWith(PhotoStorageService.CAS_PREFIX + "%")
+                .stream()
+                .map(path -> PhotoStorageService.digestOf(path.substring(path.lastIndexOf('/') + 1)))
+                .collect(Collectors.toSet());
+        Instant cutoff = Instant.now().minus(properties.gracePeriod());
+
+        int deleted = 0;
+        long freedBytes = 0;
+        // Leaf directories: cas/ab/cd holds stored photos, cas/tmp holds uploads in flight
+        try (Stream<Path> directories = Files.walk(casRoot, 2)) {
+            for (Path directory : (Iterable<Path>) directories::iterator) {
+                if (directory.equals(casRoot) || !Files.isDirectory(directory)) {
+                    continue;
+                }
+                // A digest's original and variants live or die together, judged by the newest of them
+                Map<String, List<Path>> groups = new HashMap<>();
+                Map<String, Instant> newest = new HashMap<>();
+                Map<String, Long> bytes = new HashMap<>();
+                try (Stream<Path> files = Files.list(directory)) {
+                    for (Path file : (Iterable<Path>) files::iterator) {
+                        BasicFileAttributes attributes;
+                        try {
+                            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                        } catch (NoSuchFileException e) {
+                            // Gone since the listing, e.g. a finished upload or variant moved over it
+                            continue;
+                        }
+                        if (!attributes.isRegularFile()) {
+                            continue;
+                        }
+                        String digest = PhotoStorageService.digestOf(file.getFileName().toString());
+                        groups.computeIfAbsent(digest, d -> new ArrayList<>()).add(file);
+                        newest.merge(digest, attributes.lastModifiedTime().toInstant(),
+                                (a, b) -> a.isAfter(b) ? a : b);
+                        bytes.merge(digest, attributes.size(), Long::sum);
+                    }
+                }
+                boolean inFlight = directory.getFileName().toString().equals(PhotoStorageService.TMP_DIR);
+                for (Map.Entry<String, List<Path>> group : groups.entrySet()) {
+                    boolean live = !inFlight && liveDigests.contains(group.getKey());
+                    if (live || newest.get(group.getKey()).isAfter(cutoff)) {
+                        continue;
+                    }
+                    // One group failing must not cost the rest of the sweep
+                    try {
+                        if (photoStorageService.deleteIfStale(group.getKey(), group.getValue(), cutoff)) {
+                            deleted += group.getValue().size();
+                            freedBytes += bytes.get(group.getKey());
+                        }
+                    } catch (IOException e) {
+                        logger.warn("Could not collect photo {} in {}: {}", group.getKey(), directory, e.getMessage());
+                    }
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            logger.warn("Photo garbage collection stopped early: {}", e.getMessage());
+        }
+
+        if (deleted > 0) {
+            logger.info("Photo garbage collection removed {} files ({} bytes); {} photos referenced",
+                    deleted, freedBytes, liveDigests.size());
+        }
+        return deleted;
+    }
+}
@@ -0,0 +1,46 @@
+package com.pizzaChain.customerProfile.storage;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Where uploaded photos live, how their resized variants are produced and how they are served (uploads.*).
+ *
+ * @param dir            root directory served under /uploads/**
+ * @param workers        threads resizing photos in the background
+ * @param queueCapacity  pending resize jobs before new ones are dropped (the original is served meanwhile)
+ * @param jpegQuality    quality of the generated JPEG variants, 0..1
+ * @param serving        HTTP caching and transfer settings for /uploads/**
+ * @param gc             sweep of stored photos no customer references any more
+ */
+@ConfigurationProperties("uploads")
+public record PhotoStorageProperties(@DefaultValue("uploads") String dir,
+                                     @DefaultValue("2") int workers,
+                                     @DefaultValue("200") int queueCapacity,
+                                     @DefaultValue("0.85") float jpegQuality,
+                                     @DefaultValue Serving serving,
+                                     @DefaultValue Gc gc) {
+
+    /**
+     * @param maxAge             Cache-Control max-age; a stored name always means the same bytes, so this can be long
+     * @param sendfileThreshold  files at least this large are handed to the container's sendfile
+     * @param hotFileMaxSize     files up to this size may be kept in memory
+     * @param hotCacheMaxSize    total bytes of small files kept in memory
+     */
+    public record Serving(@DefaultValue("365d") Duration maxAge,
+                          @DefaultValue("256KB") DataSize sendfileThreshold,
+                          @DefaultValue("64KB") DataSize hotFileMaxSize,
+                          @DefaultValue("32MB") DataSize hotCacheMaxSize) {}
+
+    /**
+     * @param enabled      whether the sweep runs
+     * @param interval     time between sweeps
+     * @param gracePeriod  files younger than this are kept, so an upload whose customer is not saved yet survives
+     */
+    public record Gc(@DefaultValue("true") boolean enabled,
+                     @DefaultValue("1h") Duration interval,
+                     @DefaultValue("1h") Duration gracePeriod) {}
+}
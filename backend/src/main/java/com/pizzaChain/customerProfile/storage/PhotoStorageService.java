@@ -0,0 +1,542 @@
+package com.pizzaChain.customerProfile.storage;
+
+import com.pizzaChain.diagnostics.jfr.PhotoStoreEvent;
+import com.pizzaChain.diagnostics.jfr.PhotoVariantsEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.spi.ImageReaderSpi;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Single home for customer photos: streams uploads into a content-addressed store (one copy
+ * per SHA-256, sharded by digest prefix) and renders the THUMB/AVATAR/WEB variants on a small
+ * bounded pool, so neither the request thread nor the heap ever holds a full-size image.
+ * Unreferenced files are removed by {@link PhotoGarbageCollector}; reusing a stored digest and
+ * the collector deleting it are serialized per digest, so a reused file is never deleted under
+ * the customer about to reference it.
+ * <p>
+ * Meters: uploads.photo.store (time to stream and store), uploads.photo.bytes (upload size),
+ * uploads.photo.deduplicated, uploads.photo.variants (render time), uploads.photo.variants.queued
+ * and uploads.photo.variants.rejected (queue full).
+ */
+@Service
+public class PhotoStorageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PhotoStorageService.class);
+
+    public static final String WEB_PREFIX = "/uploads/";
+    static final String CAS_DIR = "cas";
+    static final String CAS_PREFIX = WEB_PREFIX + CAS_DIR + "/";
+    static final String TMP_DIR = "tmp";
+    static final String PARTIAL_SUFFIX = ".part";
+    private static final long TRANSFER_CHUNK = 8L * 1024 * 1024;
+    private static final Pattern SAFE_EXTENSION = Pattern.compile("\\.[a-z0-9]{1,5}");
+    private static final int DIGEST_LOCK_STRIPES = 64;
+
+    private final Path root;
+    private final Path casRoot;
+    private final float jpegQuality;
+    private final ThreadPoolExecutor executor;
+    private final ReentrantLock[] digestLocks = new ReentrantLock[DIGEST_LOCK_STRIPES];
+
+    private final Timer storeLatency;
+    private final DistributionSummary uploadBytes;
+    private final Counter deduplicated;
+    private final Timer variantsLatency;
+    private final Counter variantsRejected;
+
+    public PhotoStorageService(PhotoStorageProperties properties, MeterRegistry meterRegistry) {
+        this.root = Paths.get(properties.dir()).toAbsolutePath().normalize();
+        this.casRoot = root.resolve(CAS_DIR);
+        this.jpegQuality = properties.jpegQuality();
+        for (int i = 0; i < digestLocks.length; i++) {
+            digestLocks[i] = new ReentrantLock();
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(properties.workers(), properties.workers(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.queueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "photo-variants-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.storeLatency = Timer.builder("uploads.photo.store")
+                .description("Time to stream an upload into the store")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry);
+        this.uploadBytes = DistributionSummary.builder("uploads.photo.bytes")
+                .description("Size of stored uploads")
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1024.0)
+                .maximumExpectedValue(64.0 * 1024 * 1024)
+                .register(meterRegistry);
+        this.deduplicated = Counter.builder("uploads.photo.deduplicated")
+                .description("Uploads whose bytes were already stored")
+                .register(meterRegistry);
+        this.variantsLatency = Timer.builder("uploads.photo.variants")
+                .description("Time to render the THUMB/AVATAR/WEB variants of one photo")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(10))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry);
+        this.variantsRejected = Counter.builder("uploads.photo.variants.rejected")
+                .description("Variant jobs refused because the queue was full")
+                .register(meterRegistry);
+        Gauge.builder("uploads.photo.variants.queued", executor, e -> e.getQueue().size())
+                .description("Variant jobs waiting for a worker")
+                .register(meterRegistry);
+    }
+
+    /** Directory served under /uploads/** */
+    public Path root() {
+        return root;
+    }
+
+    /** Content-addressed store: cas/ab/cd/{sha256}{.ext}, variants alongside, uploads in flight under cas/tmp */
+    Path casRoot() {
+        return casRoot;
+    }
+
+    /**
+     * Streams the upload into the content-addressed store and returns its web path,
+     * /uploads/cas/ab/cd/{sha256}{.ext}. The digest is computed while streaming; if the same
+     * bytes were stored before, the existing copy is reused and the new one discarded. The
+     * extension comes from the decoded image format, never from the client's file name, so it is
+     * a function of the bytes too and identical uploads always share one file.
+     */
+    public String store(MultipartFile photo) throws IOException {
+        if (photo == null || photo.isEmpty()) {
+            return null;
+        }
+
+        PhotoStoreEvent event = PhotoStoreEvent.start();
+        long start = System.nanoTime();
+        Path partial = Files.createDirectories(casRoot.resolve(TMP_DIR)).resolve(UUID.randomUUID() + PARTIAL_SUFFIX);
+        MessageDigest digest = sha256();
+
+        // Channel-to-channel copy: the upload is never buffered whole; the digest sees each
+        // chunk as transferFrom pulls it through
+        long size = 0;
+        try (ReadableByteChannel in = new DigestingChannel(Channels.newChannel(photo.getInputStream()), digest);
+             FileChannel out = FileChannel.open(partial, CREATE_NEW, WRITE)) {
+            long copied;
+            while ((copied = out.transferFrom(in, size, TRANSFER_CHUNK)) > 0) {
+                size += copied;
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+        uploadBytes.record(size);
+
+        String hex = HexFormat.of().formatHex(digest.digest());
+        String extension;
+        try {
+            extension = extensionOf(partial);
+        } catch (IOException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+        String relative = hex.substring(0, 2) + "/" + hex.substring(2, 4) + "/" + hex + extension;
+        Path target = casRoot.resolve(relative);
+        boolean alreadyStored;
+        ReentrantLock lock = lockFor(hex);
+        lock.lock();
+        try {
+            // Restarting the GC grace period doubles as the existence check; under the digest lock
+            // the collector cannot delete the file between the two
+            alreadyStored = touch(target);
+            if (alreadyStored) {
+                Files.delete(partial);
+                deduplicated.increment();
+                logger.debug("Upload already stored as {}", relative);
+            } else {
+                Files.createDirectories(target.getParent());
+                Files.move(partial, target, REPLACE_EXISTING, ATOMIC_MOVE);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        } finally {
+            lock.unlock();
+        }
+        storeLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        event.finish(size, alreadyStored);
+        return CAS_PREFIX + relative;
+    }
+
+    /**
+     * Deletes a digest's files (original and variants) unless one of them was modified after
+     * cutoff, re-checked under the digest lock so an upload reusing the digest in the meantime
+     * wins. Returns false when the group was kept.
+     */
+    boolean deleteIfStale(String digest, List<Path> files, Instant cutoff) throws IOException {
+        ReentrantLock lock = lockFor(digest);
+        lock.lock();
+        try {
+            for (Path file : files) {
+                try {
+                    if (Files.getLastModifiedTime(file).toInstant().isAfter(cutoff)) {
+                        return false;
+                    }
+                } catch (NoSuchFileException e) {
+                    // Already gone; nothing to keep alive
+                }
+            }
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock lockFor(String digest) {
+        return digestLocks[Math.floorMod(digest.hashCode(), digestLocks.length)];
+    }
+
+    /** Sets the file's modification time to now; false when the file does not exist */
+    private static boolean touch(Path file) throws IOException {
+        try {
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Queues generation of all variants of an uploaded photo. Completes exceptionally if the
+     * file is not an image we can decode, or if the queue is full; callers keep serving the
+     * original in that case.
+     */
+    public CompletableFuture<PhotoVariants> generateVariants(String photoPath) {
+        Path source = resolve(photoPath);
+        if (source == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Not an uploaded photo: " + photoPath));
+        }
+        PhotoVariants existing = existingVariants(photoPath);
+        if (existing != null) {
+            // Same bytes were uploaded before, so the variants are already on disk
+            return CompletableFuture.completedFuture(existing);
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> variantsLatency.record(() -> writeVariants(source, photoPath)), executor);
+        } catch (RejectedExecutionException e) {
+            variantsRejected.increment();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /** Maps a /uploads/... web path to its file, or null if it points outside the upload root */
+    public Path resolve(String webPath) {
+        if (webPath == null || !webPath.startsWith(WEB_PREFIX)) {
+            return null;
+        }
+        Path file = root.resolve(webPath.substring(WEB_PREFIX.length())).normalize();
+        return file.startsWith(root) ? file : null;
+    }
+
+    /** Stored name without extension or variant suffix: the content digest for files in the store */
+    static String digestOf(String fileName) {
+        int end = fileName.length();
+        for (int i = 0; i < fileName.length(); i++) {
+            char c = fileName.charAt(i);
+            if (c == '.' || c == '_') {
+                end = i;
+                break;
+            }
+        }
+        return fileName.substring(0, end);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private PhotoVariants writeVariants(Path source, String photoPath) {
+        PhotoVariantsEvent event = PhotoVariantsEvent.start();
+        try {
+            PhotoVariants variants = renderVariants(source, photoPath);
+            if (event.isEnabled()) {
+                event.finish(sizeOf(source), sizeOf(resolve(variants.thumbPath())) + sizeOf(resolve(variants.avatarPath()))
+                        + sizeOf(resolve(variants.webPath())), false);
+            }
+            return variants;
+        } catch (RuntimeException e) {
+            if (event.isEnabled()) {
+                event.finish(sizeOf(source), 0, true);
+            }
+            throw e;
+        }
+    }
+
+    private PhotoVariants renderVariants(Path source, String photoPath) {
+        try {
+            BufferedImage image = decode(source, PhotoVariant.WEB.size());
+            if (image == null) {
+                throw new IOException("Unsupported image format: " + photoPath);
+            }
+            image = toRgb(image);
+
+            String base = stripExtension(photoPath);
+            // Largest first, so each smaller size is scaled down from the previous one
+            String web = writeVariant(image = scaleToFit(image, PhotoVariant.WEB.size()), base, PhotoVariant.WEB);
+            String avatar = writeVariant(image = scaleToFit(image, PhotoVariant.AVATAR.size()), base, PhotoVariant.AVATAR);
+            String thumb = writeVariant(scaleToFit(image, PhotoVariant.THUMB.size()), base, PhotoVariant.THUMB);
+
+            logger.debug("Generated photo variants for {}", photoPath);
+            return new PhotoVariants(thumb, avatar, web);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private PhotoVariants existingVariants(String photoPath) {
+        String base = stripExtension(photoPath);
+        String thumb = variantPath(base, PhotoVariant.THUMB);
+        String avatar = variantPath(base, PhotoVariant.AVATAR);
+        String web = variantPath(base, PhotoVariant.WEB);
+        boolean allPresent = Files.exists(resolve(thumb)) && Files.exists(resolve(avatar)) && Files.exists(resolve(web));
+        return allPresent ? new PhotoVariants(thumb, avatar, web) : null;
+    }
+
+    private static String variantPath(String base, PhotoVariant variant) {
+        return base + "_" + variant.size() + ".jpg";
+    }
+
+    private String writeVariant(BufferedImage image, String base, PhotoVariant variant) throws IOException {
+        String webPath = variantPath(base, variant);
+        Path target = resolve(webPath);
+        // Unique per job: two jobs for the same digest (identical uploads) may render at once.
+        // The name starts with the digest, so the collector groups it with the original.
+        Path partial = Files.createTempFile(target.getParent(), target.getFileName() + ".", PARTIAL_SUFFIX);
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(jpegQuality);
+        try {
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(partial.toFile())) {
+                writer.setOutput(out);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(partial, target, REPLACE_EXISTING, ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+        return webPath;
+    }
+
+    /** Decodes with source subsampling, so a 4000px phone photo is never materialised at full size */
+    private static BufferedImage decode(Path source, int maxEdge) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            if (in == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int longest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int step = Math.max(1, longest / maxEdge);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /** JPEG has no alpha: flatten onto white */
+    private static BufferedImage toRgb(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_RGB) {
+            return image;
+        }
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        try {
+            g.drawImage(image, 0, 0, Color.WHITE, null);
+        } finally {
+            g.dispose();
+        }
+        return rgb;
+    }
+
+    /** Fits the image into a size x size box, halving step by step to keep bilinear scaling sharp */
+    private static BufferedImage scaleToFit(BufferedImage image, int size) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int longest = Math.max(width, height);
+        if (longest <= size) {
+            return image;
+        }
+        int targetWidth = Math.max(1, (int) Math.round(width * (double) size / longest));
+        int targetHeight = Math.max(1, (int) Math.round(height * (double) size / longest));
+
+        BufferedImage current = image;
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage next = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The usual extension of the image format ImageIO recognises in the file (".jpg", ".png", ...),
+     * or none when it is not an image it can read; only the header is looked at
+     */
+    private static String extensionOf(Path file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            if (in == null) {
+                return "";
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return "";
+            }
+            ImageReader reader = readers.next();
+            try {
+                ImageReaderSpi provider = reader.getOriginatingProvider();
+                String[] suffixes = provider != null ? provider.getFileSuffixes() : null;
+                if (suffixes == null || suffixes.length == 0) {
+                    return "";
+                }
+                String extension = "." + suffixes[0].toLowerCase(Locale.ROOT);
+                return SAFE_EXTENSION.matcher(extension).matches() ? extension : "";
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static String stripExtension(String webPath) {
+        int dot = webPath.lastIndexOf('.');
+        return dot > webPath.lastIndexOf('/') ? webPath.substring(0, dot) : webPath;
+    }
+
+    /** Feeds every chunk read through it into the digest */
+    private static final class DigestingChannel implements ReadableByteChannel {
+
+        private final ReadableByteChannel source;
+        private final MessageDigest digest;
+
+        DigestingChannel(ReadableByteChannel source, MessageDigest digest) {
+            this.source = source;
+            this.digest = digest;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            int start = dst.position();
+            int read = source.read(dst);
+            if (read > 0) {
+                digest.update(dst.duplicate().position(start).limit(start + read));
+            }
+            return read;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return source.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            source.close();
+        }
+    }
+}
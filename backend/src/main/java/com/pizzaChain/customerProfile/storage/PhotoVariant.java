@@ -0,0 +1,18 @@
+package com.pizzaChain.customerProfile.storage;
+
+/** Resized copies generated for every uploaded photo; the size is the longest edge in pixels */
+public enum PhotoVariant {
+    THUMB(64),
+    AVATAR(256),
+    WEB(1024);
+
+    private final int size;
+
+    PhotoVariant(int size) {
+        this.size = size;
+    }
+
+    public int size() {
+        return size;
+    }
+}
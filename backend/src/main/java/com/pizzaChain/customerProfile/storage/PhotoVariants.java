@@ -0,0 +1,4 @@
+package com.pizzaChain.customerProfile.storage;
+
+/** Web paths of the generated variants of one photo */
+public record PhotoVariants(String thumbPath, String avatarPath, String webPath) {}
@@ -0,0 +1,98 @@
+package com.pizzaChain.customerProfile.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.ResourceHttpMessageConverter;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+
+/**
+ * Writes full (non-range) upload responses:
+ * small files come from an in-memory LRU of hot thumbnails, large files are handed to
+ * Tomcat's sendfile so the bytes go from page cache to socket without passing through
+ * the JVM, and anything else is streamed as usual. Range requests never reach this
+ * converter; ResourceHttpRequestHandler serves them as regions.
+ */
+public class UploadResourceHttpMessageConverter extends ResourceHttpMessageConverter {
+
+    // Request attributes understood by Tomcat's NIO/NIO2 connectors
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final long sendfileThreshold;
+    private final long hotFileMaxSize;
+    private final Cache<FileVersion, byte[]> hotFiles;
+
+    /** Hit/miss/eviction counts of the in-memory tier are published with cache=uploads.hot */
+    public UploadResourceHttpMessageConverter(PhotoStorageProperties.Serving serving, MeterRegistry meterRegistry) {
+        this.sendfileThreshold = serving.sendfileThreshold().toBytes();
+        this.hotFileMaxSize = serving.hotFileMaxSize().toBytes();
+        this.hotFiles = Caffeine.newBuilder()
+                .maximumWeight(serving.hotCacheMaxSize().toBytes())
+                .weigher((FileVersion version, byte[] bytes) -> bytes.length)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, hotFiles, "uploads.hot");
+    }
+
+    @Override
+    protected void writeContent(Resource resource, HttpOutputMessage outputMessage) throws IOException {
+        if (resource.isFile()) {
+            File file = resource.getFile();
+            long length = file.length();
+
+            if (length > 0 && length <= hotFileMaxSize) {
+                outputMessage.getBody().write(readCached(file));
+                return;
+            }
+            if (length >= sendfileThreshold && sendfile(file, length)) {
+                return;
+            }
+        }
+        super.writeContent(resource, outputMessage);
+    }
+
+    private byte[] readCached(File file) throws IOException {
+        try {
+            return hotFiles.get(FileVersion.of(file), version -> {
+                try {
+                    return Files.readAllBytes(file.toPath());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Asks Tomcat to send the file itself once the response is committed. The Content-Length
+     * header is already set, and the body must stay untouched.
+     */
+    private boolean sendfile(File file, long length) throws IOException {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return false;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        if (!Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            return false;
+        }
+        request.setAttribute(SENDFILE_FILENAME, file.getCanonicalPath());
+        request.setAttribute(SENDFILE_START, 0L);
+        request.setAttribute(SENDFILE_END, length);
+        return true;
+    }
+}
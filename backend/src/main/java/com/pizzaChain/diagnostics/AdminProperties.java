@@ -0,0 +1,16 @@
+package com.pizzaChain.diagnostics;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Access to /api/admin/** (admin.*).
+ *
+ * @param token  shared secret expected in the X-Admin-Token header; blank disables the admin API
+ */
+@ConfigurationProperties("admin")
+public record AdminProperties(String token) {
+
+    public boolean enabled() {
+        return token != null && !token.isBlank();
+    }
+}
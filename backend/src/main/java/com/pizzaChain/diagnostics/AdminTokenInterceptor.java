@@ -0,0 +1,47 @@
+package com.pizzaChain.diagnostics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Guards /api/admin/** and the bulk customer import and export: the request must carry the configured admin token in X-Admin-Token.
+ * Without a configured token the admin API answers 404, as if it did not exist.
+ */
+public class AdminTokenInterceptor implements HandlerInterceptor {
+
+    public static final String HEADER = "X-Admin-Token";
+
+    private final AdminProperties properties;
+
+    public AdminTokenInterceptor(AdminProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (!properties.enabled()) {
+            return reject(response, HttpStatus.NOT_FOUND, "Admin API disabled");
+        }
+        String presented = request.getHeader(HEADER);
+        // Constant-time comparison, so the token cannot be guessed from response times
+        if (presented == null || !MessageDigest.isEqual(
+                presented.getBytes(StandardCharsets.UTF_8), properties.token().getBytes(StandardCharsets.UTF_8))) {
+            return reject(response, HttpStatus.UNAUTHORIZED, "Invalid admin token");
+        }
+        return true;
+    }
+
+    private static boolean reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"" + message + "\"}");
+        return false;
+    }
+}
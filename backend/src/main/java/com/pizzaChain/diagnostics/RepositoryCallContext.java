@@ -0,0 +1,33 @@
+package com.pizzaChain.diagnostics;
+
+/**
+ * The repository method running on the current thread, e.g. "CustomerRepository.findById", so
+ * the statements it executes can be attributed to it. Statements run outside a repository call
+ * (lazy loading, flushes at commit) have none.
+ */
+public final class RepositoryCallContext {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private RepositoryCallContext() {
+    }
+
+    /** The innermost repository call on this thread, or null */
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    static String enter(String call) {
+        String previous = CURRENT.get();
+        CURRENT.set(call);
+        return previous;
+    }
+
+    static void exit(String previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
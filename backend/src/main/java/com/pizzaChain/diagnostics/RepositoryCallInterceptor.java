@@ -0,0 +1,116 @@
+package com.pizzaChain.diagnostics;
+
+import com.pizzaChain.diagnostics.jfr.RepositoryCallEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Modifying;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wraps every call on a repository proxy (added by {@link RepositoryInstrumentationConfig}):
+ * times it and counts the rows it returned per repository method (db.repository.calls and
+ * db.repository.rows), marks it as the current {@link RepositoryCallContext} for the statement
+ * instrumentation, and reports it as a {@link RepositoryCallEvent} while a JFR recording runs.
+ * Runs inside the repository's transaction, so the time covers the SQL and the mapping of the
+ * results.
+ */
+public class RepositoryCallInterceptor implements MethodInterceptor {
+
+    private final String repository;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final Map<Method, MethodMeters> meters = new ConcurrentHashMap<>();
+
+    public RepositoryCallInterceptor(Class<?> repositoryInterface, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.repository = repositoryInterface.getSimpleName();
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        if (method.getDeclaringClass() == Object.class) {
+            return invocation.proceed();
+        }
+        MethodMeters methodMeters = meters.computeIfAbsent(method, this::register);
+        String previous = RepositoryCallContext.enter(methodMeters.call());
+        RepositoryCallEvent event = RepositoryCallEvent.start(repository, method.getName());
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable t) {
+            methodMeters.failed().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            event.finish(-1, true);
+            throw t;
+        } finally {
+            RepositoryCallContext.exit(previous);
+        }
+        methodMeters.succeeded().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        long rows = rows(invocation, result);
+        if (rows >= 0) {
+            methodMeters.rows().record(rows);
+        }
+        event.finish(rows, false);
+        return result;
+    }
+
+    /** Rows a repository method returned, or changed for a @Modifying query; -1 when the result does not say */
+    static long rows(MethodInvocation invocation, Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Number number) {
+            // Counts are not rows, updated row counts are
+            return invocation.getMethod().isAnnotationPresent(Modifying.class) ? number.longValue() : -1;
+        }
+        if (result instanceof Boolean || result instanceof Iterable<?> || result instanceof java.util.stream.BaseStream<?, ?>) {
+            return -1;
+        }
+        return 1;
+    }
+
+    // Repository methods are a fixed set, so the tags stay bounded. Without a registry (slice tests)
+    // the meters go to the global registry, which drops them unless something is added to it
+    private MethodMeters register(Method method) {
+        MeterRegistry registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        String name = method.getName();
+        return new MethodMeters(
+                repository + "." + name,
+                callTimer(registry, name, "success"),
+                callTimer(registry, name, "error"),
+                DistributionSummary.builder("db.repository.rows")
+                        .description("Rows returned or changed per repository method call")
+                        .tags("repository", repository, "method", name)
+                        .register(registry));
+    }
+
+    private Timer callTimer(MeterRegistry registry, String method, String outcome) {
+        return Timer.builder("db.repository.calls")
+                .description("Repository method calls, including their statements and result mapping")
+                .tags("repository", repository, "method", method, "outcome", outcome)
+                .register(registry);
+    }
+
+    private record MethodMeters(String call, Timer succeeded, Timer failed, DistributionSummary rows) {}
+}
@@ -0,0 +1,34 @@
+package com.pizzaChain.diagnostics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * Adds {@link RepositoryCallInterceptor} to every Spring Data repository proxy, so calls from any
+ * service are covered without touching the repositories or their callers.
+ */
+@Configuration
+public class RepositoryInstrumentationConfig {
+
+    // Static: a post-processor must exist before the repository factory beans it customizes.
+    // The registry is looked up on first use, not while the repositories are being created
+    @Bean
+    static BeanPostProcessor repositoryInstrumentation(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                // Before initialization: the factory bean creates the repository in afterPropertiesSet
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, information) -> proxyFactory.addAdvice(
+                                    new RepositoryCallInterceptor(information.getRepositoryInterface(), meterRegistry))));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,88 @@
+package com.pizzaChain.diagnostics.controller;
+
+import com.pizzaChain.diagnostics.jfr.JfrRecordingService;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * On-demand Java Flight Recorder recordings; behind the admin token (see AdminTokenInterceptor).
+ * A recording includes the application's events: OpenAI calls and parsing, repository calls and
+ * photo storage. Open the downloaded file in JDK Mission Control or with "jfr print".
+ */
+@RestController
+@RequestMapping("/api/admin/jfr")
+public class JfrController {
+
+    private final JfrRecordingService recordingService;
+
+    public JfrController(JfrRecordingService recordingService) {
+        this.recordingService = recordingService;
+    }
+
+    /**
+     * Start a recording, e.g. ?duration=PT2M&settings=profile; 409 if one is already running
+     */
+    @PostMapping("/start")
+    public ResponseEntity<?> start(@RequestParam(required = false) Duration duration,
+                                   @RequestParam(required = false) String settings) {
+        try {
+            return ResponseEntity.ok(recordingService.start(duration, settings));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Stop the running recording before its duration is up
+     */
+    @PostMapping("/stop")
+    public ResponseEntity<?> stop() {
+        try {
+            return ResponseEntity.ok(recordingService.stop());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/status")
+    public ResponseEntity<JfrRecordingService.Status> status() {
+        return ResponseEntity.ok(recordingService.status());
+    }
+
+    /**
+     * Download the current or last recording as a .jfr file
+     */
+    @GetMapping("/recording")
+    public ResponseEntity<?> download() throws IOException {
+        Path file;
+        try {
+            file = recordingService.dump();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+        long size = Files.size(file);
+        // The temporary dump is deleted once the response has been streamed
+        InputStreamResource body = new InputStreamResource(Files.newInputStream(file, StandardOpenOption.DELETE_ON_CLOSE));
+        String filename = "pizzaChain-" + Instant.now().getEpochSecond() + ".jfr";
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .contentLength(size)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+}
@@ -0,0 +1,51 @@
+package com.pizzaChain.diagnostics.controller;
+
+import com.pizzaChain.diagnostics.sql.StatementStatistics;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Per-statement database statistics since startup (or the last reset); behind the admin token
+ * (see AdminTokenInterceptor). Aggregated meters are on /actuator/prometheus as db.*.
+ */
+@RestController
+@RequestMapping("/api/admin/sql")
+public class SqlStatementsController {
+
+    private static final int MAX_LIMIT = 100;
+
+    private final StatementStatistics statistics;
+
+    public SqlStatementsController(StatementStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    /**
+     * The statements with the most total execution time, with calls, mean/max latency, the
+     * repository methods that ran them, suspected N+1 requests and the last sampled plan
+     */
+    @GetMapping("/statements")
+    public ResponseEntity<List<StatementStatistics.StatementSummary>> topStatements(
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(statistics.top(Math.max(1, Math.min(limit, MAX_LIMIT))));
+    }
+
+    /**
+     * Recent statements over the slow threshold, newest first, with their bind parameters
+     */
+    @GetMapping("/slow")
+    public ResponseEntity<List<StatementStatistics.SlowStatement>> slowStatements() {
+        return ResponseEntity.ok(statistics.recentSlow());
+    }
+
+    /**
+     * Start the per-statement totals afresh, e.g. before a load test
+     */
+    @DeleteMapping("/statements")
+    public ResponseEntity<Void> reset() {
+        statistics.reset();
+        return ResponseEntity.noContent().build();
+    }
+}
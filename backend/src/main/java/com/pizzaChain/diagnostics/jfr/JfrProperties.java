@@ -0,0 +1,21 @@
+package com.pizzaChain.diagnostics.jfr;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Recordings started from /api/admin/jfr (diagnostics.jfr.*).
+ *
+ * @param defaultDuration  length of a recording when the request does not give one
+ * @param maxDuration      upper bound on any requested duration; the recording stops itself then
+ * @param maxSize          disk space a recording may use before its oldest chunks are discarded
+ * @param settings         JFR configuration used by default: "default" (about 1% overhead) or "profile" (about 2%)
+ */
+@ConfigurationProperties("diagnostics.jfr")
+public record JfrProperties(@DefaultValue("5m") Duration defaultDuration,
+                            @DefaultValue("30m") Duration maxDuration,
+                            @DefaultValue("256MB") DataSize maxSize,
+                            @DefaultValue("profile") String settings) {}
@@ -0,0 +1,157 @@
+package com.pizzaChain.diagnostics.jfr;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One on-demand JFR recording at a time, bounded in duration and disk size. The application's own
+ * events (com.pizzaChain.*) are enabled by default, so any recording includes them; with none
+ * running they cost an allocation and an enabled check per call.
+ * <p>
+ * A stopped recording is kept until the next one starts, so it can still be downloaded.
+ */
+@Service
+public class JfrRecordingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JfrRecordingService.class);
+
+    private final JfrProperties properties;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Guarded by lock
+    private Recording recording;
+
+    public JfrRecordingService(JfrProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Starts a recording for the given duration (the configured default when null, capped at the maximum)
+     * with the given JFR settings ("default", "profile" or null for the configured ones).
+     *
+     * @throws IllegalStateException if a recording is already running
+     * @throws IllegalArgumentException if the settings are unknown
+     */
+    public Status start(Duration duration, String settings) {
+        String settingsName = settings == null || settings.isBlank() ? properties.settings() : settings;
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settingsName);
+        } catch (IOException | ParseException e) {
+            throw new IllegalArgumentException("Unknown JFR settings: " + settingsName, e);
+        }
+        Duration bounded = duration == null || duration.isNegative() || duration.isZero()
+                ? properties.defaultDuration()
+                : duration;
+        if (bounded.compareTo(properties.maxDuration()) > 0) {
+            bounded = properties.maxDuration();
+        }
+
+        lock.lock();
+        try {
+            if (recording != null && recording.getState() == RecordingState.RUNNING) {
+                throw new IllegalStateException("A recording is already running");
+            }
+            closeRecording();
+            Recording next = new Recording(configuration);
+            next.setName("pizzaChain-admin");
+            next.setToDisk(true);
+            next.setMaxSize(properties.maxSize().toBytes());
+            next.setDuration(bounded);
+            next.start();
+            recording = next;
+            logger.info("JFR recording started: settings={}, duration={}", settingsName, bounded);
+            return status();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Stops the running recording early; its data stays available for download */
+    public Status stop() {
+        lock.lock();
+        try {
+            if (recording == null) {
+                throw new IllegalStateException("No recording");
+            }
+            if (recording.getState() == RecordingState.RUNNING) {
+                recording.stop();
+                logger.info("JFR recording stopped");
+            }
+            return status();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes what the current recording has so far (or all of it, once stopped) to a temporary
+     * file, which the caller deletes.
+     */
+    public Path dump() throws IOException {
+        Path file = Files.createTempFile("pizzaChain-", ".jfr");
+        lock.lock();
+        try {
+            if (recording == null || recording.getState() == RecordingState.NEW) {
+                throw new IllegalStateException("No recording");
+            }
+            recording.dump(file);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        } finally {
+            lock.unlock();
+        }
+        return file;
+    }
+
+    public Status status() {
+        lock.lock();
+        try {
+            if (recording == null) {
+                return new Status("NONE", null, null, 0);
+            }
+            return new Status(recording.getState().name(), recording.getStartTime(), recording.getDuration(), recording.getSize());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        lock.lock();
+        try {
+            closeRecording();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void closeRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    /**
+     * @param state      NONE, RUNNING or STOPPED
+     * @param startedAt  when the recording started
+     * @param duration   how long it runs before stopping itself
+     * @param size       bytes recorded so far
+     */
+    public record Status(String state, Instant startedAt, Duration duration, long size) {}
+}
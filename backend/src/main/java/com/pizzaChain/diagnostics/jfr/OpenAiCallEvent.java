@@ -0,0 +1,57 @@
+package com.pizzaChain.diagnostics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One call to the OpenAI chat completions API, from sending the request until the reply (or the
+ * last streamed fragment) was in. Begins on the request thread and is committed on the HTTP
+ * client's thread that completes the call.
+ */
+@Name("com.pizzaChain.OpenAiCall")
+@Label("OpenAI Call")
+@Category({"PizzaChain", "Chat"})
+@Description("Round trip to the OpenAI chat completions API")
+@StackTrace(false)
+public final class OpenAiCallEvent extends Event {
+
+    @Label("Model")
+    private String model;
+
+    @Label("Mode")
+    @Description("blocking or streaming")
+    private String mode;
+
+    @Label("HTTP Status")
+    @Description("0 when no response arrived")
+    private int httpStatus;
+
+    @Label("Outcome")
+    private String outcome;
+
+    /** Begins the event; the returned event is inert when no recording has it enabled */
+    public static OpenAiCallEvent start(String model, String mode) {
+        OpenAiCallEvent event = new OpenAiCallEvent();
+        if (event.isEnabled()) {
+            event.model = model;
+            event.mode = mode;
+            event.begin();
+        }
+        return event;
+    }
+
+    public void httpStatus(int httpStatus) {
+        this.httpStatus = httpStatus;
+    }
+
+    public void finish(String outcome) {
+        if (shouldCommit()) {
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
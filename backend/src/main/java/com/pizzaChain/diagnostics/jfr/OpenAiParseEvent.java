@@ -0,0 +1,48 @@
+package com.pizzaChain.diagnostics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** Parsing one (non-streamed) chat completion body into a reply */
+@Name("com.pizzaChain.OpenAiParse")
+@Label("OpenAI Response Parse")
+@Category({"PizzaChain", "Chat"})
+@StackTrace(false)
+public final class OpenAiParseEvent extends Event {
+
+    @Label("Body Length")
+    private int length;
+
+    @Label("Prompt Tokens")
+    private long promptTokens;
+
+    @Label("Completion Tokens")
+    private long completionTokens;
+
+    @Label("Outcome")
+    private String outcome;
+
+    public static OpenAiParseEvent start(String body) {
+        OpenAiParseEvent event = new OpenAiParseEvent();
+        if (event.isEnabled()) {
+            event.length = body.length();
+            event.begin();
+        }
+        return event;
+    }
+
+    public void tokens(long promptTokens, long completionTokens) {
+        this.promptTokens = promptTokens;
+        this.completionTokens = completionTokens;
+    }
+
+    public void finish(String outcome) {
+        if (shouldCommit()) {
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.pizzaChain.diagnostics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** Streaming one uploaded photo into the content-addressed store, digest and rename included */
+@Name("com.pizzaChain.PhotoStore")
+@Label("Photo Store")
+@Category({"PizzaChain", "Uploads"})
+@StackTrace(false)
+public final class PhotoStoreEvent extends Event {
+
+    @Label("Bytes")
+    @DataAmount
+    private long bytes;
+
+    @Label("Deduplicated")
+    @Description("The same bytes were already stored, so the upload was discarded")
+    private boolean deduplicated;
+
+    public static PhotoStoreEvent start() {
+        PhotoStoreEvent event = new PhotoStoreEvent();
+        if (event.isEnabled()) {
+            event.begin();
+        }
+        return event;
+    }
+
+    public void finish(long bytes, boolean deduplicated) {
+        if (shouldCommit()) {
+            this.bytes = bytes;
+            this.deduplicated = deduplicated;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.pizzaChain.diagnostics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** Decoding one stored photo and writing its THUMB/AVATAR/WEB variants, on the variants pool */
+@Name("com.pizzaChain.PhotoVariants")
+@Label("Photo Variants")
+@Category({"PizzaChain", "Uploads"})
+@StackTrace(false)
+public final class PhotoVariantsEvent extends Event {
+
+    @Label("Source Bytes")
+    @DataAmount
+    private long sourceBytes;
+
+    @Label("Written Bytes")
+    @DataAmount
+    private long writtenBytes;
+
+    @Label("Failed")
+    private boolean failed;
+
+    public static PhotoVariantsEvent start() {
+        PhotoVariantsEvent event = new PhotoVariantsEvent();
+        if (event.isEnabled()) {
+            event.begin();
+        }
+        return event;
+    }
+
+    /** Sizes cost a file system call each, so callers only look them up when {@link #isEnabled()} */
+    public void finish(long sourceBytes, long writtenBytes, boolean failed) {
+        if (shouldCommit()) {
+            this.sourceBytes = sourceBytes;
+            this.writtenBytes = writtenBytes;
+            this.failed = failed;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.pizzaChain.diagnostics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One call to a Spring Data repository method, including the SQL it ran and the mapping of
+ * the results. Recorded with a stack trace so the calling service method shows up.
+ */
+@Name("com.pizzaChain.RepositoryCall")
+@Label("Repository Call")
+@Category({"PizzaChain", "Persistence"})
+@Description("Spring Data repository method call")
+@StackTrace(true)
+public final class RepositoryCallEvent extends Event {
+
+    @Label("Repository")
+    private String repository;
+
+    @Label("Method")
+    private String method;
+
+    @Label("Rows")
+    @Description("Rows returned or changed; -1 when the result does not say")
+    private long rows;
+
+    @Label("Failed")
+    private boolean failed;
+
+    public static RepositoryCallEvent start(String repository, String method) {
+        RepositoryCallEvent event = new RepositoryCallEvent();
+        if (event.isEnabled()) {
+            event.repository = repository;
+            event.method = method;
+            event.begin();
+        }
+        return event;
+    }
+
+    public void finish(long rows, boolean failed) {
+        if (shouldCommit()) {
+            this.rows = rows;
+            this.failed = failed;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.pizzaChain.diagnostics.sql;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import net.ttddyy.dsproxy.QueryType;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Captures EXPLAIN (ANALYZE, BUFFERS) for SELECTs over diagnostics.sql.explain.threshold, at most
+ * once per statement per min-interval, on a single background thread. ANALYZE runs the statement
+ * again with the same bind parameters, so only plain SELECTs are explained, in a read-only
+ * transaction that is rolled back. PostgreSQL only; on other databases sampling turns itself off.
+ */
+@Component
+public class ExplainSampler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExplainSampler.class);
+
+    /** Prefix of the sampler's own statements, which the instrumentation skips */
+    static final String EXPLAIN = "EXPLAIN (ANALYZE, BUFFERS) ";
+
+    private static final int QUEUE_CAPACITY = 8;
+
+    private final SqlDiagnosticsProperties.Explain properties;
+    private final int maxStatements;
+    private final StatementStatistics statistics;
+    private final ObjectProvider<DataSource> dataSource;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, Long> lastSampled = new ConcurrentHashMap<>();
+    private volatile Boolean supported;
+
+    private final Counter captured;
+    private final Counter failed;
+    private final Counter dropped;
+
+    public ExplainSampler(SqlDiagnosticsProperties properties, StatementStatistics statistics,
+                          ObjectProvider<DataSource> dataSource, MeterRegistry meterRegistry) {
+        this.properties = properties.explain();
+        this.maxStatements = properties.maxStatements();
+        this.statistics = statistics;
+        this.dataSource = dataSource;
+        this.executor = new ThreadPoolExecutor(1, 1,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "sql-explain");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.captured = samples(meterRegistry, "captured");
+        this.failed = samples(meterRegistry, "failed");
+        this.dropped = samples(meterRegistry, "dropped");
+    }
+
+    private static Counter samples(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("db.explain.samples")
+                .description("EXPLAIN (ANALYZE, BUFFERS) samples of slow SELECTs")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    void maybeSample(String sql, QueryType type, long nanos, List<ParameterSetOperation> parameters) {
+        if (!properties.enabled() || type != QueryType.SELECT || nanos < properties.threshold().toNanos()
+                || Boolean.FALSE.equals(supported)) {
+            return;
+        }
+        String lower = sql.toLowerCase(Locale.ROOT);
+        if (lower.contains(" for update") || lower.contains(" for share")) {
+            return;
+        }
+        long now = System.nanoTime();
+        Long last = lastSampled.get(sql);
+        if (last != null && now - last < properties.minInterval().toNanos()) {
+            return;
+        }
+        if (lastSampled.size() >= maxStatements) {
+            lastSampled.clear();
+        }
+        lastSampled.put(sql, now);
+
+        List<ParameterSetOperation> bound = List.copyOf(parameters);
+        try {
+            executor.execute(() -> explain(sql, bound));
+        } catch (RejectedExecutionException e) {
+            dropped.increment();
+        }
+    }
+
+    private void explain(String sql, List<ParameterSetOperation> parameters) {
+        try (Connection connection = dataSource.getObject().getConnection()) {
+            if (supported == null) {
+                supported = "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+                if (!supported) {
+                    logger.info("EXPLAIN sampling needs PostgreSQL, not {}; turning it off",
+                            connection.getMetaData().getDatabaseProductName());
+                    return;
+                }
+            }
+            boolean autoCommit = connection.getAutoCommit();
+            boolean readOnly = connection.isReadOnly();
+            // The driver starts the transaction with BEGIN READ ONLY
+            connection.setReadOnly(true);
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(EXPLAIN + sql)) {
+                statement.setQueryTimeout((int) Math.max(1, properties.timeout().toSeconds()));
+                // Replays the recorded setString/setObject/... calls with their original arguments
+                for (ParameterSetOperation parameter : parameters) {
+                    parameter.getMethod().invoke(statement, parameter.getArgs());
+                }
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        plan.append(rows.getString(1)).append('\n');
+                    }
+                }
+                statistics.recordPlan(sql, plan.toString());
+                captured.increment();
+                logger.info("Plan of slow statement {}\n{}", sql, plan);
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(autoCommit);
+                connection.setReadOnly(readOnly);
+            }
+        } catch (Exception e) {
+            failed.increment();
+            logger.warn("EXPLAIN of slow statement failed: {}", e.toString());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
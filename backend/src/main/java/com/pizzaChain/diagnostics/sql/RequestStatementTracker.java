@@ -0,0 +1,111 @@
+package com.pizzaChain.diagnostics.sql;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import net.ttddyy.dsproxy.QueryType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Counts the statements each request runs on its thread and flags the SELECTs it repeats at least
+ * diagnostics.sql.n-plus-one-threshold times, the usual sign of an N+1 (one query per row of an
+ * earlier result). Requests are named by controller method, e.g. "CustomerController.getAllCustomers",
+ * which keeps the db.request.statements and db.nplusone.suspected tags bounded.
+ */
+@Component
+public class RequestStatementTracker implements AsyncHandlerInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestStatementTracker.class);
+
+    private static final ThreadLocal<RequestStatements> CURRENT = new ThreadLocal<>();
+
+    private final StatementStatistics statistics;
+    private final MeterRegistry meterRegistry;
+    private final int nPlusOneThreshold;
+
+    public RequestStatementTracker(SqlDiagnosticsProperties properties, StatementStatistics statistics,
+                                   MeterRegistry meterRegistry) {
+        this.statistics = statistics;
+        this.meterRegistry = meterRegistry;
+        this.nPlusOneThreshold = properties.nPlusOneThreshold();
+    }
+
+    /** The controller method handling the request on this thread, or null */
+    public static String currentHandler() {
+        RequestStatements current = CURRENT.get();
+        return current != null ? current.handler : null;
+    }
+
+    void count(String sql, QueryType type) {
+        RequestStatements current = CURRENT.get();
+        if (current != null) {
+            current.statements++;
+            if (type == QueryType.SELECT) {
+                current.selects.merge(sql, 1, Integer::sum);
+            }
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod) {
+            CURRENT.set(new RequestStatements(
+                    handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName()));
+        }
+        return true;
+    }
+
+    // An async handler returns the request thread here; the dispatch with its result starts afresh
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        finish();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        finish();
+    }
+
+    private void finish() {
+        RequestStatements current = CURRENT.get();
+        if (current == null) {
+            return;
+        }
+        CURRENT.remove();
+        DistributionSummary.builder("db.request.statements")
+                .description("Statements run per request")
+                .tag("handler", current.handler)
+                .register(meterRegistry)
+                .record(current.statements);
+        current.selects.forEach((sql, executions) -> {
+            if (executions >= nPlusOneThreshold) {
+                logger.warn("Possible N+1 in {}: {} executions of {}", current.handler, executions, sql);
+                statistics.recordSuspectedNPlusOne(sql);
+                Counter.builder("db.nplusone.suspected")
+                        .description("Requests that repeated one SELECT at least diagnostics.sql.n-plus-one-threshold times")
+                        .tag("handler", current.handler)
+                        .register(meterRegistry)
+                        .increment();
+            }
+        });
+    }
+
+    private static final class RequestStatements {
+        final String handler;
+        final Map<String, Integer> selects = new HashMap<>();
+        int statements;
+
+        RequestStatements(String handler) {
+            this.handler = handler;
+        }
+    }
+}
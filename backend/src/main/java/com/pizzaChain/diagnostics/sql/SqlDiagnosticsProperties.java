@@ -0,0 +1,41 @@
+package com.pizzaChain.diagnostics.sql;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Per-statement JDBC instrumentation (diagnostics.sql.*).
+ *
+ * @param enabled            whether the DataSource is wrapped at all
+ * @param slowThreshold      statements at least this slow are logged and kept with their bind parameters
+ * @param captureParameters  whether slow statements keep their bind parameters (each truncated)
+ * @param redactedColumns    columns whose bound values are shown as *** (matched on the column name)
+ * @param maxStatements      distinct statements tracked; later ones only reach the db.statements meters
+ * @param slowLogSize        most recent slow statements kept for /api/admin/sql/slow
+ * @param nPlusOneThreshold  executions of the same SELECT within one request that count as a likely N+1
+ * @param explain            sampling of execution plans for slow SELECTs
+ */
+@ConfigurationProperties("diagnostics.sql")
+public record SqlDiagnosticsProperties(@DefaultValue("true") boolean enabled,
+                                       @DefaultValue("200ms") Duration slowThreshold,
+                                       @DefaultValue("true") boolean captureParameters,
+                                       @DefaultValue("password") Set<String> redactedColumns,
+                                       @DefaultValue("500") int maxStatements,
+                                       @DefaultValue("50") int slowLogSize,
+                                       @DefaultValue("10") int nPlusOneThreshold,
+                                       @DefaultValue Explain explain) {
+
+    /**
+     * @param enabled      whether plans are sampled; PostgreSQL only
+     * @param threshold    SELECTs at least this slow are explained
+     * @param minInterval  time before the same statement is explained again
+     * @param timeout      statement timeout of the EXPLAIN itself
+     */
+    public record Explain(@DefaultValue("false") boolean enabled,
+                          @DefaultValue("1s") Duration threshold,
+                          @DefaultValue("10m") Duration minInterval,
+                          @DefaultValue("30s") Duration timeout) {}
+}
@@ -0,0 +1,39 @@
+package com.pizzaChain.diagnostics.sql;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the DataSource in a datasource-proxy that reports every statement to a
+ * {@link StatementListener}. The proxy unwraps to the pool, so the Hikari metrics and health
+ * checks still see it. Off with diagnostics.sql.enabled=false.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "diagnostics.sql", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SqlInstrumentationConfig {
+
+    // Static: a post-processor must exist before the DataSource it wraps
+    @Bean
+    static BeanPostProcessor statementInstrumentation(ObjectProvider<StatementStatistics> statistics,
+                                                      ObjectProvider<RequestStatementTracker> tracker,
+                                                      ObjectProvider<ExplainSampler> sampler) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(beanName, dataSource)
+                            .listener(new StatementListener(statistics.getObject(), tracker.getObject(), sampler.getObject()))
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
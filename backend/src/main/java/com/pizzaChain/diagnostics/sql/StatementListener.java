@@ -0,0 +1,88 @@
+package com.pizzaChain.diagnostics.sql;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.QueryType;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Called by the datasource-proxy around every statement execution; hands the timing to
+ * {@link StatementStatistics}, {@link RequestStatementTracker} and {@link ExplainSampler}.
+ */
+public class StatementListener implements QueryExecutionListener {
+
+    private static final String START = StatementListener.class.getName() + ".start";
+
+    private final StatementStatistics statistics;
+    private final RequestStatementTracker tracker;
+    private final ExplainSampler sampler;
+
+    public StatementListener(StatementStatistics statistics, RequestStatementTracker tracker, ExplainSampler sampler) {
+        this.statistics = statistics;
+        this.tracker = tracker;
+        this.sampler = sampler;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        // datasource-proxy only measures whole milliseconds
+        execInfo.addCustomValue(START, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (queryInfoList.isEmpty()) {
+            return;
+        }
+        Long start = execInfo.getCustomValue(START, Long.class);
+        long nanos = start != null
+                ? System.nanoTime() - start
+                : TimeUnit.MILLISECONDS.toNanos(execInfo.getElapsedTime());
+        // A batch of plain statements shares one execution; split its time evenly
+        long share = nanos / queryInfoList.size();
+        long rows = queryInfoList.size() == 1 ? rows(execInfo.getResult()) : -1;
+
+        for (QueryInfo query : queryInfoList) {
+            String sql = query.getQuery();
+            if (sql.startsWith(ExplainSampler.EXPLAIN)) {
+                continue;
+            }
+            List<List<ParameterSetOperation>> parameterSets = query.getParametersList();
+            List<ParameterSetOperation> parameters = parameterSets.isEmpty() ? List.of() : parameterSets.get(0);
+            QueryType type = statistics.record(sql, share, execInfo.isSuccess(), rows, parameters);
+            tracker.count(sql, type);
+            if (execInfo.isSuccess()) {
+                sampler.maybeSample(sql, type, share, parameters);
+            }
+        }
+    }
+
+    /** Update counts of executeUpdate/executeBatch; -1 for queries and anything else */
+    private static long rows(Object result) {
+        if (result instanceof Integer count) {
+            return count;
+        }
+        if (result instanceof Long count) {
+            return count;
+        }
+        if (result instanceof int[] counts) {
+            long sum = 0;
+            for (int count : counts) {
+                sum += Math.max(count, 0);
+            }
+            return sum;
+        }
+        if (result instanceof long[] counts) {
+            long sum = 0;
+            for (long count : counts) {
+                sum += Math.max(count, 0);
+            }
+            return sum;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,328 @@
+package com.pizzaChain.diagnostics.sql;
+
+import com.pizzaChain.diagnostics.RepositoryCallContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.ttddyy.dsproxy.QueryType;
+import net.ttddyy.dsproxy.listener.QueryUtils;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Totals per distinct SQL statement, for finding what dominates database time. Hibernate binds
+ * every value as a parameter, so the statements are a bounded set of shapes; past maxStatements
+ * new ones are only counted in the db.statements meters. Statements at or over the slow threshold
+ * are kept, most recent first, with their bind parameters; values bound to one of the redacted
+ * columns (e.g. password) are masked. They are also logged at INFO on {@value #SLOW_LOGGER}, which
+ * the prod profile samples (logging.sampling.loggers) so a database slowdown cannot flood the logs.
+ */
+@Component
+public class StatementStatistics {
+
+    public static final String SLOW_LOGGER = "com.pizzaChain.diagnostics.sql.SLOW";
+
+    private static final Logger slowLogger = LoggerFactory.getLogger(SLOW_LOGGER);
+
+    private static final int MAX_CALLERS = 5;
+    private static final int MAX_PARAMETER_LENGTH = 100;
+
+    private final SqlDiagnosticsProperties properties;
+    private final long slowThresholdNanos;
+    private final Set<String> redactedColumns;
+    private final Map<String, Entry> statements = new ConcurrentHashMap<>();
+    private final ReentrantLock slowLock = new ReentrantLock();
+    // Guarded by slowLock
+    private final Deque<SlowStatement> slowStatements = new ArrayDeque<>();
+
+    private final Map<QueryType, Timer> succeeded = new EnumMap<>(QueryType.class);
+    private final Map<QueryType, Timer> failed = new EnumMap<>(QueryType.class);
+    private final Map<QueryType, Counter> slow = new EnumMap<>(QueryType.class);
+    private final Counter untracked;
+
+    public StatementStatistics(SqlDiagnosticsProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.slowThresholdNanos = properties.slowThreshold().toNanos();
+        this.redactedColumns = properties.redactedColumns().stream()
+                .map(column -> column.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+        for (QueryType type : QueryType.values()) {
+            String tag = type.name().toLowerCase();
+            succeeded.put(type, statementTimer(meterRegistry, tag, "success"));
+            failed.put(type, statementTimer(meterRegistry, tag, "error"));
+            slow.put(type, Counter.builder("db.statements.slow")
+                    .description("Statements at or over diagnostics.sql.slow-threshold")
+                    .tag("type", tag)
+                    .register(meterRegistry));
+        }
+        this.untracked = Counter.builder("db.statements.untracked")
+                .description("Executions of statements beyond diagnostics.sql.max-statements, not broken down per statement")
+                .register(meterRegistry);
+        Gauge.builder("db.statements.tracked", statements, Map::size)
+                .description("Distinct statements with their own totals")
+                .register(meterRegistry);
+    }
+
+    private static Timer statementTimer(MeterRegistry meterRegistry, String type, String outcome) {
+        return Timer.builder("db.statements")
+                .description("JDBC statement executions")
+                .tags("type", type, "outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Adds one execution of a statement.
+     *
+     * @param rows        rows changed by an INSERT/UPDATE/DELETE, -1 when unknown (SELECTs)
+     * @param parameters  the (first) parameter set it was executed with
+     * @return the statement's type
+     */
+    public QueryType record(String sql, long nanos, boolean success, long rows, List<ParameterSetOperation> parameters) {
+        Entry entry = statements.get(sql);
+        if (entry == null) {
+            if (statements.size() < properties.maxStatements()) {
+                entry = statements.computeIfAbsent(sql, s -> new Entry(s, redactedParameters(s, redactedColumns)));
+            } else {
+                untracked.increment();
+            }
+        }
+        QueryType type = entry != null ? entry.type : QueryUtils.getQueryType(sql);
+        (success ? succeeded : failed).get(type).record(nanos, TimeUnit.NANOSECONDS);
+
+        String repositoryCall = RepositoryCallContext.current();
+        boolean isSlow = nanos >= slowThresholdNanos;
+        if (entry != null) {
+            entry.calls.increment();
+            entry.totalNanos.add(nanos);
+            entry.maxNanos.accumulate(nanos);
+            if (!success) {
+                entry.errors.increment();
+            }
+            if (rows > 0) {
+                entry.rows.add(rows);
+            }
+            if (isSlow) {
+                entry.slowCalls.increment();
+            }
+            if (repositoryCall != null && entry.callers.size() < MAX_CALLERS) {
+                entry.callers.add(repositoryCall);
+            }
+        }
+        if (isSlow) {
+            slow(sql, type, nanos, repositoryCall, parameters, entry);
+        }
+        return type;
+    }
+
+    private void slow(String sql, QueryType type, long nanos, String repositoryCall,
+                      List<ParameterSetOperation> parameters, Entry entry) {
+        slow.get(type).increment();
+        List<String> values = List.of();
+        if (properties.captureParameters()) {
+            Set<Integer> redacted = entry != null ? entry.redactedParameters : redactedParameters(sql, redactedColumns);
+            values = describe(parameters, redacted);
+        }
+        SlowStatement statement = new SlowStatement(Instant.now(), nanos / 1_000_000.0, sql, values,
+                repositoryCall, RequestStatementTracker.currentHandler());
+        slowLogger.info("Slow statement ({} ms, {}, {}): {} parameters {}", Math.round(statement.durationMs()),
+                repositoryCall, statement.handler(), sql, values);
+        slowLock.lock();
+        try {
+            slowStatements.addFirst(statement);
+            while (slowStatements.size() > properties.slowLogSize()) {
+                slowStatements.removeLast();
+            }
+        } finally {
+            slowLock.unlock();
+        }
+    }
+
+    /** Bind parameters in index order, e.g. "1=ann@example.com"; long values are truncated, redacted ones masked */
+    static List<String> describe(List<ParameterSetOperation> parameters, Set<Integer> redacted) {
+        List<String> values = new ArrayList<>(parameters.size());
+        for (ParameterSetOperation parameter : parameters) {
+            Object[] args = parameter.getArgs();
+            if (args == null || args.length == 0) {
+                continue;
+            }
+            String value;
+            if (ParameterSetOperation.isSetNullParameterOperation(parameter)) {
+                value = "NULL";
+            } else if (args[0] instanceof Integer index && redacted.contains(index)) {
+                value = "***";
+            } else if (args.length < 2) {
+                value = "?";
+            } else {
+                value = String.valueOf(args[1]);
+                if (value.length() > MAX_PARAMETER_LENGTH) {
+                    value = value.substring(0, MAX_PARAMETER_LENGTH) + "… (" + value.length() + " chars)";
+                }
+            }
+            values.add(args[0] + "=" + value);
+        }
+        return values;
+    }
+
+    /**
+     * Indexes of the placeholders bound to one of the given columns: by position in the column
+     * list of an INSERT, otherwise by the column compared with it ("password=?"). Hibernate binds
+     * every value, so the placeholders are the only literals to look at.
+     */
+    static Set<Integer> redactedParameters(String sql, Set<String> columns) {
+        if (columns.isEmpty() || sql.indexOf('?') < 0) {
+            return Set.of();
+        }
+        String lower = sql.toLowerCase(Locale.ROOT);
+        List<String> insertColumns = null;
+        if (lower.stripLeading().startsWith("insert")) {
+            int open = lower.indexOf('(');
+            int close = lower.indexOf(')', open);
+            if (open >= 0 && close > open) {
+                insertColumns = Arrays.stream(lower.substring(open + 1, close).split(",")).map(String::strip).toList();
+            }
+        }
+        Set<Integer> redacted = new HashSet<>();
+        int index = 0;
+        for (int i = 0; i < lower.length(); i++) {
+            if (lower.charAt(i) != '?') {
+                continue;
+            }
+            index++;
+            String column = insertColumns != null
+                    ? (index <= insertColumns.size() ? insertColumns.get(index - 1) : null)
+                    : columnBefore(lower, i);
+            if (column != null && columns.contains(column.substring(column.lastIndexOf('.') + 1))) {
+                redacted.add(index);
+            }
+        }
+        return Set.copyOf(redacted);
+    }
+
+    /** The identifier compared with the placeholder at position, e.g. "c1_0.password" for "c1_0.password=?" */
+    private static String columnBefore(String sql, int position) {
+        int end = position - 1;
+        while (end >= 0 && (Character.isWhitespace(sql.charAt(end)) || "=<>!".indexOf(sql.charAt(end)) >= 0)) {
+            end--;
+        }
+        int start = end;
+        while (start >= 0 && (Character.isLetterOrDigit(sql.charAt(start)) || sql.charAt(start) == '_' || sql.charAt(start) == '.')) {
+            start--;
+        }
+        return start < end ? sql.substring(start + 1, end + 1) : null;
+    }
+
+    /** A request ran the statement often enough to look like an N+1 */
+    void recordSuspectedNPlusOne(String sql) {
+        Entry entry = statements.get(sql);
+        if (entry != null) {
+            entry.nPlusOneRequests.increment();
+        }
+    }
+
+    void recordPlan(String sql, String plan) {
+        Entry entry = statements.get(sql);
+        if (entry != null) {
+            entry.plan = new Plan(Instant.now(), plan);
+        }
+    }
+
+    /** The statements with the most total execution time, highest first */
+    public List<StatementSummary> top(int limit) {
+        return statements.values().stream()
+                .sorted(Comparator.comparingLong((Entry e) -> e.totalNanos.sum()).reversed())
+                .limit(limit)
+                .map(Entry::summary)
+                .toList();
+    }
+
+    /** Recent slow statements, newest first */
+    public List<SlowStatement> recentSlow() {
+        slowLock.lock();
+        try {
+            return List.copyOf(slowStatements);
+        } finally {
+            slowLock.unlock();
+        }
+    }
+
+    /** Forgets the per-statement totals and slow statements; the meters keep counting */
+    public void reset() {
+        statements.clear();
+        slowLock.lock();
+        try {
+            slowStatements.clear();
+        } finally {
+            slowLock.unlock();
+        }
+    }
+
+    private static final class Entry {
+        final String sql;
+        final QueryType type;
+        final LongAdder calls = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        final LongAdder errors = new LongAdder();
+        final LongAdder rows = new LongAdder();
+        final LongAdder slowCalls = new LongAdder();
+        final LongAdder nPlusOneRequests = new LongAdder();
+        final Set<String> callers = ConcurrentHashMap.newKeySet();
+        final Set<Integer> redactedParameters;
+        volatile Plan plan;
+
+        Entry(String sql, Set<Integer> redactedParameters) {
+            this.sql = sql;
+            this.type = QueryUtils.getQueryType(sql);
+            this.redactedParameters = redactedParameters;
+        }
+
+        StatementSummary summary() {
+            long count = calls.sum();
+            double totalMs = totalNanos.sum() / 1_000_000.0;
+            return new StatementSummary(sql, type.name(), count, totalMs, count == 0 ? 0 : totalMs / count,
+                    maxNanos.get() / 1_000_000.0, errors.sum(), rows.sum(), slowCalls.sum(), nPlusOneRequests.sum(),
+                    Set.copyOf(callers), plan);
+        }
+    }
+
+    /**
+     * @param rows              rows changed, for INSERT/UPDATE/DELETE
+     * @param nPlusOneRequests  requests in which the statement looked like an N+1
+     * @param callers           repository methods it was executed from (up to five)
+     * @param plan              last sampled EXPLAIN (ANALYZE, BUFFERS), if any
+     */
+    public record StatementSummary(String sql, String type, long calls, double totalMs, double meanMs, double maxMs,
+                                   long errors, long rows, long slowCalls, long nPlusOneRequests,
+                                   Set<String> callers, Plan plan) {}
+
+    /**
+     * @param repositoryCall  repository method it ran in, if any
+     * @param handler         controller method of the request it ran in, if any
+     */
+    public record SlowStatement(Instant at, double durationMs, String sql, List<String> parameters,
+                                String repositoryCall, String handler) {}
+
+    public record Plan(Instant capturedAt, String text) {}
+}
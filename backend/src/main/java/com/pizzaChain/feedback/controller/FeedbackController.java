@@ -1,39 +1,55 @@
 package com.pizzaChain.feedback.controller;
 
+import com.pizzaChain.customerProfile.dto.CursorPage;
 import com.pizzaChain.feedback.dto.FeedbackDTO;
+import com.pizzaChain.feedback.ingest.FeedbackIngestService;
 import com.pizzaChain.feedback.service.FeedbackService;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/feedback")
 public class FeedbackController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final FeedbackService feedbackService;
+    private final FeedbackIngestService feedbackIngestService;
 
-    public FeedbackController(FeedbackService feedbackService) {
+    public FeedbackController(FeedbackService feedbackService, FeedbackIngestService feedbackIngestService) {
         this.feedbackService = feedbackService;
+        this.feedbackIngestService = feedbackIngestService;
     }
 
     /**
-     * Get all feedback for a specific customer
+     * Get a customer's feedback, newest first, one keyset page at a time; follow nextCursor for older entries
      */
     @GetMapping("/{customerId}")
-    public ResponseEntity<List<FeedbackDTO>> getFeedbackForCustomer(@PathVariable UUID customerId) {
-        return ResponseEntity.ok(feedbackService.getFeedbackForCustomer(customerId));
+    public ResponseEntity<CursorPage<FeedbackDTO>> getFeedbackForCustomer(
+            @PathVariable UUID customerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        int boundedSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return ResponseEntity.ok(feedbackService.getFeedbackForCustomer(customerId, cursor, boundedSize));
     }
 
     /**
-     * Add new feedback for a customer
+     * Add new feedback for a customer. With write-behind ingestion on, the feedback is queued and
+     * acknowledged with 202 and its id; it is written shortly after, and 503 means the queue is full.
+     * An unknown customer is 404 either way.
      */
     @PostMapping("/{customerId}")
     public ResponseEntity<FeedbackDTO> addFeedback(
             @PathVariable UUID customerId,
-            @RequestParam String text
+            @RequestParam @NotBlank @Size(max = 1000) String text
     ) {
+        if (feedbackIngestService.isEnabled()) {
+            return ResponseEntity.accepted().body(feedbackIngestService.submit(customerId, text));
+        }
         return ResponseEntity.ok(feedbackService.addFeedback(customerId, text));
     }
 
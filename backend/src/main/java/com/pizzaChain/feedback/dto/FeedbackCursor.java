@@ -0,0 +1,36 @@
+package com.pizzaChain.feedback.dto;
+
+import com.pizzaChain.customerProfile.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Keyset position in a customer's feedback, ordered newest first by (date, id).
+ * Serialized as an opaque URL-safe token so clients never build it themselves.
+ */
+public record FeedbackCursor(LocalDate date, UUID id) {
+
+    private static final char SEPARATOR = '\n';
+
+    public String encode() {
+        String raw = id + String.valueOf(SEPARATOR) + date;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static FeedbackCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int split = raw.indexOf(SEPARATOR);
+            if (split < 0) {
+                throw new InvalidCursorException(token);
+            }
+            return new FeedbackCursor(LocalDate.parse(raw.substring(split + 1)), UUID.fromString(raw.substring(0, split)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException(token);
+        }
+    }
+}
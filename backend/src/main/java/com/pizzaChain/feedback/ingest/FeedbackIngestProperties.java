@@ -0,0 +1,33 @@
+package com.pizzaChain.feedback.ingest;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Write-behind ingestion of feedback submissions (feedback.ingest.*).
+ *
+ * @param enabled          accept POSTs into the queue (202); false writes them on the request thread as before
+ * @param queueCapacity    accepted submissions not yet written; beyond this new ones get 503
+ * @param batchSize        rows per transaction, sent as one JDBC batch
+ * @param shutdownTimeout  how long shutdown waits for the queue to drain; the rest is replayed from the journal
+ * @param journal          append-only log of accepted submissions
+ */
+@ConfigurationProperties("feedback.ingest")
+public record FeedbackIngestProperties(@DefaultValue("true") boolean enabled,
+                                       @DefaultValue("10000") int queueCapacity,
+                                       @DefaultValue("500") int batchSize,
+                                       @DefaultValue("30s") Duration shutdownTimeout,
+                                       @DefaultValue Journal journal) {
+
+    /**
+     * @param dir          directory of journal segments
+     * @param fsync        force each accepted submission to disk before acknowledging it (concurrent ones share a sync)
+     * @param segmentSize  a new segment is started past this size; fully written segments are deleted
+     */
+    public record Journal(@DefaultValue("feedback-journal") String dir,
+                          @DefaultValue("true") boolean fsync,
+                          @DefaultValue("4MB") DataSize segmentSize) {}
+}
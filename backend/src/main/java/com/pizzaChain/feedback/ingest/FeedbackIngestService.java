@@ -0,0 +1,385 @@
+package com.pizzaChain.feedback.ingest;
+
+import com.pizzaChain.customerProfile.exception.CustomerNotFoundException;
+import com.pizzaChain.customerProfile.repository.CustomerRepository;
+import com.pizzaChain.feedback.dto.FeedbackDTO;
+import com.pizzaChain.feedback.repository.FeedbackRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind ingestion of feedback. {@link #submit} checks the customer exists, journals the
+ * submission, queues it and returns at once; a single writer thread drains the queue in JDBC batches, so a burst of
+ * feedback holds one connection at a time instead of one per request.
+ * <p>
+ * The queue is bounded: when it is full, submissions are refused rather than buffered without
+ * limit. On shutdown (after the web server has stopped taking requests) the writer drains what
+ * is queued; anything it cannot write in time stays in the journal and is replayed on the next
+ * start, as is everything left behind by a crash. Writes skip ids already in the table, so
+ * replaying a submission that did reach the database is harmless.
+ * <p>
+ * If the writer stops for any reason other than shutdown (e.g. the journal cannot be read or
+ * cleaned up), submissions are refused from then on rather than acknowledged for nothing to
+ * write, and the feedbackIngest health component reports DOWN until a restart.
+ * <p>
+ * Meters: feedback.ingest.submissions{outcome=accepted|refused}, feedback.ingest.rows{outcome=written|dropped},
+ * feedback.ingest.pending (queued, not yet written), feedback.ingest.batch (time per batch write) and
+ * feedback.ingest.writer.up (0 once the writer has failed).
+ */
+@Service
+public class FeedbackIngestService implements SmartLifecycle, HealthIndicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeedbackIngestService.class);
+
+    private static final String INSERT_SQL = "INSERT INTO customer_feedback (id, customer_id, text, date) VALUES (?, ?, ?, ?)";
+    private static final long POLL_MILLIS = 100;
+    private static final long INITIAL_BACKOFF_MILLIS = 200;
+    private static final long MAX_BACKOFF_MILLIS = 10_000;
+
+    private final FeedbackIngestProperties properties;
+    private final FeedbackRepository feedbackRepository;
+    private final CustomerRepository customerRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final LinkedBlockingQueue<PendingFeedback> queue = new LinkedBlockingQueue<>();
+    private final Semaphore capacity;
+    private final ReentrantLock appendLock = new ReentrantLock();
+
+    private final Counter accepted;
+    private final Counter refused;
+    private final Counter written;
+    private final Counter dropped;
+    private final Timer batchLatency;
+
+    private FeedbackJournal journal;
+    private Thread writer;
+    private volatile boolean accepting;
+    private volatile boolean running;
+    private volatile boolean drained;
+    private volatile String writerFailure;
+
+    public FeedbackIngestService(FeedbackIngestProperties properties,
+                                 FeedbackRepository feedbackRepository,
+                                 CustomerRepository customerRepository,
+                                 JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.feedbackRepository = feedbackRepository;
+        this.customerRepository = customerRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.capacity = new Semaphore(properties.queueCapacity());
+
+        this.accepted = counter("feedback.ingest.submissions", "accepted", "Feedback submissions", meterRegistry);
+        this.refused = counter("feedback.ingest.submissions", "refused", "Feedback submissions", meterRegistry);
+        this.written = counter("feedback.ingest.rows", "written", "Feedback rows handled by the writer", meterRegistry);
+        this.dropped = counter("feedback.ingest.rows", "dropped", "Feedback rows handled by the writer", meterRegistry);
+        this.batchLatency = Timer.builder("feedback.ingest.batch")
+                .description("Time to write one batch of feedback")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(meterRegistry);
+        Gauge.builder("feedback.ingest.pending", queue, LinkedBlockingQueue::size)
+                .description("Feedback submissions queued and not yet written")
+                .register(meterRegistry);
+        Gauge.builder("feedback.ingest.writer.up", this, service -> service.writerFailure == null ? 1 : 0)
+                .description("1 while the feedback writer is working, 0 once it has failed")
+                .register(meterRegistry);
+    }
+
+    private static Counter counter(String name, String outcome, String description, MeterRegistry meterRegistry) {
+        return Counter.builder(name)
+                .description(description)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /** Whether POSTs go through the queue; when false they are written on the request thread */
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    /**
+     * Accepts feedback for a later write and returns it with its id. Once this returns, the
+     * submission is in the journal (on disk, with fsync on) and will be written even across a
+     * crash, unless the customer is deleted before then.
+     *
+     * @throws CustomerNotFoundException if there is no such customer
+     * @throws FeedbackQueueFullException if the queue is full or the service is shutting down
+     */
+    public FeedbackDTO submit(UUID customerId, String text) {
+        // Usually a second-level cache hit; without it an unknown id would be acknowledged and then dropped
+        if (customerRepository.findById(customerId).isEmpty()) {
+            throw new CustomerNotFoundException(customerId);
+        }
+        PendingFeedback feedback = new PendingFeedback(UUID.randomUUID(), customerId, text, LocalDate.now(), 0);
+        try {
+            // Journal and queue in the same order, so a written batch covers every earlier segment
+            appendLock.lock();
+            try {
+                if (!accepting) {
+                    refused.increment();
+                    throw new FeedbackQueueFullException(writerFailure != null
+                            ? "Feedback ingestion is unavailable, retry later"
+                            : "Feedback ingestion is shutting down, retry later");
+                }
+                if (!capacity.tryAcquire()) {
+                    refused.increment();
+                    throw new FeedbackQueueFullException("Too many feedback submissions pending, retry later");
+                }
+                long segment;
+                try {
+                    segment = journal.append(feedback);
+                } catch (IOException e) {
+                    capacity.release();
+                    throw e;
+                }
+                queue.add(new PendingFeedback(feedback.id(), customerId, text, feedback.date(), segment));
+            } finally {
+                appendLock.unlock();
+            }
+            journal.sync();
+        } catch (IOException e) {
+            // Queued or not, it is not known to be durable, so the caller must not treat it as accepted
+            throw new UncheckedIOException("Could not journal feedback", e);
+        }
+        accepted.increment();
+        return new FeedbackDTO(feedback.id(), feedback.text(), feedback.date());
+    }
+
+    // ---------------- LIFECYCLE ----------------
+
+    @Override
+    public void start() {
+        List<Path> leftovers;
+        try {
+            FeedbackIngestProperties.Journal settings = properties.journal();
+            journal = new FeedbackJournal(Paths.get(settings.dir()).toAbsolutePath(),
+                    settings.segmentSize().toBytes(), settings.fsync());
+            leftovers = journal.segmentsBefore(journal.currentSegment());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open feedback journal", e);
+        }
+
+        running = true;
+        accepting = true;
+        writer = new Thread(() -> run(leftovers), "feedback-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void stop() {
+        appendLock.lock();
+        try {
+            accepting = false;
+        } finally {
+            appendLock.unlock();
+        }
+        running = false;
+        try {
+            writer.join(properties.shutdownTimeout().toMillis());
+            if (writer.isAlive()) {
+                writer.interrupt();
+                writer.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            journal.close();
+            if (drained) {
+                journal.deleteAll();
+            } else {
+                logger.warn("Feedback queue not drained before shutdown; {} submissions stay in the journal", queue.size());
+            }
+        } catch (IOException e) {
+            logger.warn("Could not close feedback journal", e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public Health health() {
+        if (writerFailure != null) {
+            return Health.down().withDetail("writer", writerFailure).withDetail("pending", queue.size()).build();
+        }
+        return Health.up().withDetail("pending", queue.size()).build();
+    }
+
+    /** Starts before and stops after the web server, so no request is accepted without a writer behind it */
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 4096;
+    }
+
+    // ---------------- WRITER ----------------
+
+    private void run(List<Path> leftovers) {
+        if (!replay(leftovers)) {
+            return;
+        }
+        List<PendingFeedback> batch = new ArrayList<>(properties.batchSize());
+        try {
+            while (running || !queue.isEmpty()) {
+                PendingFeedback first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, properties.batchSize() - 1);
+                if (!persist(batch)) {
+                    return;
+                }
+                capacity.release(batch.size());
+                journal.deleteBefore(batch.get(batch.size() - 1).segment());
+                batch.clear();
+            }
+            drained = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            writerFailed("journal cleanup failed", e);
+        } catch (RuntimeException e) {
+            writerFailed("unexpected error", e);
+        }
+    }
+
+    /** Stops accepting submissions, so none is acknowledged without a writer to persist it */
+    private void writerFailed(String reason, Exception cause) {
+        logger.error("Feedback writer stopped: {}; refusing submissions until restart, {} queued stay in the journal",
+                reason, queue.size(), cause);
+        appendLock.lock();
+        try {
+            writerFailure = reason + ": " + cause.getMessage();
+            accepting = false;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /** Writes what a previous run left in the journal, then deletes those segments */
+    private boolean replay(List<Path> segments) {
+        if (segments.isEmpty()) {
+            return true;
+        }
+        int replayed = 0;
+        try {
+            for (Path file : segments) {
+                List<PendingFeedback> entries = FeedbackJournal.read(file, FeedbackJournal.segmentNumber(file));
+                for (int from = 0; from < entries.size(); from += properties.batchSize()) {
+                    List<PendingFeedback> batch = entries.subList(from, Math.min(from + properties.batchSize(), entries.size()));
+                    if (!persist(batch)) {
+                        return false;
+                    }
+                }
+                replayed += entries.size();
+            }
+            journal.deleteBefore(journal.currentSegment());
+        } catch (IOException e) {
+            writerFailed("could not replay the journal, which is kept for the next start", e);
+            return false;
+        }
+        logger.info("Replayed {} journaled feedback submissions from {} segments", replayed, segments.size());
+        return true;
+    }
+
+    /**
+     * Writes a batch, retrying with backoff while the database is unavailable. A row the database
+     * rejects (its customer was deleted) fails the whole batch, so it is then retried row by row
+     * and rejected rows are dropped. Returns false if interrupted before the batch was written.
+     */
+    private boolean persist(List<PendingFeedback> batch) {
+        long backoff = INITIAL_BACKOFF_MILLIS;
+        while (true) {
+            try {
+                long start = System.nanoTime();
+                written.increment(write(batch));
+                batchLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return true;
+            } catch (DataIntegrityViolationException e) {
+                if (batch.size() == 1) {
+                    PendingFeedback rejected = batch.get(0);
+                    logger.warn("Dropping feedback {} for customer {}: {}", rejected.id(), rejected.customerId(),
+                            e.getMostSpecificCause().getMessage());
+                    dropped.increment();
+                    return true;
+                }
+                for (PendingFeedback row : batch) {
+                    if (!persist(List.of(row))) {
+                        return false;
+                    }
+                }
+                return true;
+            } catch (RuntimeException e) {
+                logger.warn("Writing {} feedback submissions failed, retrying in {} ms: {}", batch.size(), backoff, e.getMessage());
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    /** Writes the rows of a batch not yet in the table and returns how many that was */
+    private int write(List<PendingFeedback> batch) {
+        return transactionTemplate.execute(status -> {
+            List<UUID> ids = new ArrayList<>(batch.size());
+            for (PendingFeedback feedback : batch) {
+                ids.add(feedback.id());
+            }
+            Set<UUID> existing = new HashSet<>(feedbackRepository.findExistingIds(ids));
+            List<PendingFeedback> rows = existing.isEmpty()
+                    ? batch
+                    : batch.stream().filter(feedback -> !existing.contains(feedback.id())).toList();
+            if (rows.isEmpty()) {
+                return 0;
+            }
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (statement, feedback) -> {
+                statement.setObject(1, feedback.id());
+                statement.setObject(2, feedback.customerId());
+                statement.setString(3, feedback.text());
+                statement.setObject(4, feedback.date());
+            });
+            return rows.size();
+        });
+    }
+}
@@ -0,0 +1,243 @@
+package com.pizzaChain.feedback.ingest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Append-only log of accepted feedback, one line per submission, split into numbered
+ * segment files (00000000000000000001.journal, ...). Segments left by a previous run hold
+ * submissions that may not have reached the database; they are replayed and then deleted.
+ * <p>
+ * With fsync on, {@link #sync()} makes everything appended so far durable. Callers that
+ * arrive while a sync is in flight are covered by the next one, so concurrent submissions
+ * share disk flushes instead of queueing one per request.
+ * <p>
+ * Locks in this codebase are ReentrantLocks, never synchronized: code like this holds them across
+ * file I/O on virtual request threads, and a monitor would pin the carrier thread meanwhile.
+ */
+final class FeedbackJournal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeedbackJournal.class);
+
+    private static final String SUFFIX = ".journal";
+    private static final char SEPARATOR = ',';
+
+    private final Path dir;
+    private final long segmentSize;
+    private final boolean fsync;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    // Guarded by lock
+    private FileChannel channel;
+    private long segment;
+    private long segmentBytes;
+    private long written;
+
+    private volatile long synced;
+
+    FeedbackJournal(Path dir, long segmentSize, boolean fsync) throws IOException {
+        this.dir = Files.createDirectories(dir);
+        this.segmentSize = segmentSize;
+        this.fsync = fsync;
+        List<Long> existing = segments();
+        this.segment = existing.isEmpty() ? 1 : existing.get(existing.size() - 1) + 1;
+        this.channel = open(segment);
+    }
+
+    /** Segment new submissions go to; every lower-numbered segment was left by a previous run or is full */
+    long currentSegment() {
+        lock.lock();
+        try {
+            return segment;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Segments before the given one that are still on disk, oldest first */
+    List<Path> segmentsBefore(long limit) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (long number : segments()) {
+            if (number < limit) {
+                files.add(file(number));
+            }
+        }
+        return files;
+    }
+
+    /** Appends a submission (its segment field is ignored) and returns the segment it went to */
+    long append(PendingFeedback feedback) throws IOException {
+        byte[] line = (feedback.id().toString() + SEPARATOR
+                + feedback.customerId() + SEPARATOR
+                + feedback.date() + SEPARATOR
+                + Base64.getEncoder().encodeToString(feedback.text().getBytes(StandardCharsets.UTF_8))
+                + '\n').getBytes(StandardCharsets.US_ASCII);
+        lock.lock();
+        try {
+            if (segmentBytes >= segmentSize) {
+                roll();
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            segmentBytes += line.length;
+            written += line.length;
+            return segment;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Makes everything appended so far durable; a no-op with fsync off */
+    void sync() throws IOException {
+        if (!fsync) {
+            return;
+        }
+        long target;
+        lock.lock();
+        try {
+            target = written;
+        } finally {
+            lock.unlock();
+        }
+        if (synced >= target) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            if (synced >= target) {
+                // Forced by whoever held the lock before us
+                return;
+            }
+            FileChannel toForce;
+            long upTo;
+            lock.lock();
+            try {
+                toForce = channel;
+                upTo = written;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                toForce.force(false);
+            } catch (ClosedChannelException e) {
+                // Rolled over meanwhile; roll() forces a segment before closing it
+            }
+            synced = upTo;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /** Deletes segments before the given one; call once everything in them is in the database */
+    void deleteBefore(long limit) throws IOException {
+        for (Path file : segmentsBefore(Math.min(limit, currentSegment()))) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /** Deletes every segment; call after {@link #close()} once everything is in the database */
+    void deleteAll() throws IOException {
+        for (Path file : segmentsBefore(Long.MAX_VALUE)) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /** Reads a segment; a torn or unreadable line (the process died mid-write) is skipped */
+    static List<PendingFeedback> read(Path file, long segment) throws IOException {
+        List<PendingFeedback> entries = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.US_ASCII)) {
+            String line;
+            int number = 0;
+            while ((line = reader.readLine()) != null) {
+                number++;
+                String[] fields = line.split(String.valueOf(SEPARATOR), 4);
+                try {
+                    if (fields.length != 4) {
+                        throw new IllegalArgumentException("expected 4 fields");
+                    }
+                    entries.add(new PendingFeedback(UUID.fromString(fields[0]), UUID.fromString(fields[1]),
+                            new String(Base64.getDecoder().decode(fields[3]), StandardCharsets.UTF_8),
+                            LocalDate.parse(fields[2]), segment));
+                } catch (RuntimeException e) {
+                    logger.warn("Skipping unreadable line {} of {}: {}", number, file, e.getMessage());
+                }
+            }
+        }
+        return entries;
+    }
+
+    static long segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (fsync) {
+                channel.force(false);
+            }
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Called with lock held
+    private void roll() throws IOException {
+        if (fsync) {
+            channel.force(false);
+        }
+        channel.close();
+        segment++;
+        segmentBytes = 0;
+        channel = open(segment);
+    }
+
+    private FileChannel open(long number) throws IOException {
+        return FileChannel.open(file(number), CREATE_NEW, WRITE);
+    }
+
+    private Path file(long number) {
+        return dir.resolve(String.format("%020d%s", number, SUFFIX));
+    }
+
+    private List<Long> segments() throws IOException {
+        List<Long> numbers = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+            for (Path file : files) {
+                try {
+                    numbers.add(segmentNumber(file));
+                } catch (NumberFormatException e) {
+                    logger.warn("Ignoring unexpected file in feedback journal: {}", file);
+                }
+            }
+        }
+        numbers.sort(null);
+        return numbers;
+    }
+}
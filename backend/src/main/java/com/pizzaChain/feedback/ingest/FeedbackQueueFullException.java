@@ -0,0 +1,9 @@
+package com.pizzaChain.feedback.ingest;
+
+/** The write-behind queue cannot take another submission; the client should retry later. */
+public class FeedbackQueueFullException extends RuntimeException {
+
+    public FeedbackQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.pizzaChain.feedback.ingest;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * An accepted submission waiting to be written.
+ *
+ * @param segment  journal segment holding it; the segment can go once everything up to here is written
+ */
+record PendingFeedback(UUID id, UUID customerId, String text, LocalDate date, long segment) {
+}
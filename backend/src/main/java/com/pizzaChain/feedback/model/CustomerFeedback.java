@@ -9,7 +9,9 @@ import java.time.LocalDate;
 import java.util.UUID;
 
 @Entity
-@Table(name = "customer_feedback") // use lowercase snake_case to avoid quoted identifiers
+@Table(name = "customer_feedback", // use lowercase snake_case to avoid quoted identifiers
+        // Keyset pagination per customer (FeedbackRepository); also serves the customer_id foreign key
+        indexes = @Index(name = "idx_customer_feedback_customer_date_id", columnList = "customer_id, date, id"))
 public class CustomerFeedback {
 
     @Id
@@ -1,13 +1,44 @@
 package com.pizzaChain.feedback.repository;
 
+import com.pizzaChain.feedback.dto.FeedbackDTO;
 import com.pizzaChain.feedback.model.CustomerFeedback;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 public interface FeedbackRepository extends JpaRepository<CustomerFeedback, UUID> {
 
-    // navigate relation: "customer.id" -> "customer_Id" in method name
-    List<CustomerFeedback> findByCustomer_IdOrderByDateDesc(UUID customerId);
+    // Keyset pages, newest first by (date, id); both walk idx_customer_feedback_customer_date_id,
+    // so a deep page costs the same as the first: no OFFSET and no count(*)
+
+    @Query("""
+       SELECT new com.pizzaChain.feedback.dto.FeedbackDTO(f.id, f.text, f.date)
+       FROM CustomerFeedback f
+       WHERE f.customer.id = :customerId
+       ORDER BY f.date DESC, f.id DESC
+       """)
+    Slice<FeedbackDTO> findFirstPage(@Param("customerId") UUID customerId, Pageable limit);
+
+    @Query("""
+       SELECT new com.pizzaChain.feedback.dto.FeedbackDTO(f.id, f.text, f.date)
+       FROM CustomerFeedback f
+       WHERE f.customer.id = :customerId
+         AND (f.date < :beforeDate OR (f.date = :beforeDate AND f.id < :beforeId))
+       ORDER BY f.date DESC, f.id DESC
+       """)
+    Slice<FeedbackDTO> findPageBefore(@Param("customerId") UUID customerId,
+                                      @Param("beforeDate") LocalDate beforeDate,
+                                      @Param("beforeId") UUID beforeId,
+                                      Pageable limit);
+
+    // Write-behind ingestion: ids of a batch that are already written (e.g. replayed from the journal)
+    @Query("SELECT f.id FROM CustomerFeedback f WHERE f.id IN :ids")
+    List<UUID> findExistingIds(@Param("ids") Collection<UUID> ids);
 }
@@ -1,18 +1,24 @@
 package com.pizzaChain.feedback.service;
 
+import com.pizzaChain.customerProfile.dto.CursorPage;
+import com.pizzaChain.customerProfile.exception.CustomerNotFoundException;
 import com.pizzaChain.customerProfile.model.Customer;
+import com.pizzaChain.feedback.dto.FeedbackCursor;
 import com.pizzaChain.feedback.dto.FeedbackDTO;
 import com.pizzaChain.feedback.model.CustomerFeedback;
 import com.pizzaChain.customerProfile.repository.CustomerRepository;
 import com.pizzaChain.feedback.repository.FeedbackRepository;
+import com.pizzaChain.logging.LogText;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Service
 public class FeedbackService {
@@ -28,28 +34,39 @@ public class FeedbackService {
     }
 
     /**
-     * Get all feedback for a customer
+     * Get one page of a customer's feedback, newest first; pass the previous page's nextCursor, or null
      */
-    public List<FeedbackDTO> getFeedbackForCustomer(UUID customerId) {
-        log.info("Fetching feedback for customer {}", customerId);
-        List<FeedbackDTO> feedbacks = feedbackRepository
-                .findByCustomer_IdOrderByDateDesc(customerId)
-                .stream()
-                .map(f -> new FeedbackDTO(f.getId(), f.getText(), f.getDate()))
-                .collect(Collectors.toList());
-        log.info("Found {} feedback entries for customer {}", feedbacks.size(), customerId);
-        return feedbacks;
+    @Transactional(readOnly = true)
+    public CursorPage<FeedbackDTO> getFeedbackForCustomer(UUID customerId, String cursor, int size) {
+        log.debug("Fetching feedback for customer {} (cursor {})", customerId, cursor);
+        PageRequest limit = PageRequest.ofSize(size);
+
+        Slice<FeedbackDTO> slice;
+        if (cursor == null || cursor.isBlank()) {
+            slice = feedbackRepository.findFirstPage(customerId, limit);
+        } else {
+            FeedbackCursor before = FeedbackCursor.decode(cursor);
+            slice = feedbackRepository.findPageBefore(customerId, before.date(), before.id(), limit);
+        }
+
+        List<FeedbackDTO> content = slice.getContent();
+        String nextCursor = null;
+        if (slice.hasNext() && !content.isEmpty()) {
+            FeedbackDTO last = content.get(content.size() - 1);
+            nextCursor = new FeedbackCursor(last.getDate(), last.getId()).encode();
+        }
+        return new CursorPage<>(content, size, slice.hasNext(), nextCursor);
     }
 
     /**
      * Add new feedback for a customer
      */
     public FeedbackDTO addFeedback(UUID customerId, String text) {
-        log.info("Adding feedback for customer {}: {}", customerId, text);
+        log.info("Adding feedback for customer {}: {}", customerId, LogText.preview(text));
         Customer customer = customerRepository.findById(customerId)
                 .orElseThrow(() -> {
                     log.error("Customer not found: {}", customerId);
-                    return new IllegalArgumentException("Customer not found: " + customerId);
+                    return new CustomerNotFoundException(customerId);
                 });
 
         CustomerFeedback feedback = new CustomerFeedback(customer, text, LocalDate.now());
@@ -63,7 +80,7 @@ public class FeedbackService {
      * Update existing feedback
      */
     public FeedbackDTO updateFeedback(UUID feedbackId, String newText) {
-        log.info("Updating feedback {}: {}", feedbackId, newText);
+        log.info("Updating feedback {}: {}", feedbackId, LogText.preview(newText));
 
         CustomerFeedback feedback = feedbackRepository.findById(feedbackId)
                 .orElseThrow(() -> {
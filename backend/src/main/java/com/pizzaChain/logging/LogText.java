@@ -0,0 +1,40 @@
+package com.pizzaChain.logging;
+
+/**
+ * Log-safe view of user-supplied text (chat messages, replies, feedback). Long payloads are cut
+ * to a preview with the original length appended, and line breaks are flattened so one entry
+ * stays one line. The work happens in toString, i.e. only when the event is actually written.
+ */
+public final class LogText {
+
+    public static final int MAX_LENGTH = 200;
+
+    private LogText() {}
+
+    public static Object preview(String text) {
+        return new Preview(text, MAX_LENGTH);
+    }
+
+    static String truncate(String text, int maxLength) {
+        if (text == null) {
+            return "null";
+        }
+        int end = Math.min(text.length(), maxLength);
+        StringBuilder out = new StringBuilder(end + 24);
+        for (int i = 0; i < end; i++) {
+            char c = text.charAt(i);
+            out.append(c == '\n' || c == '\r' ? ' ' : c);
+        }
+        if (text.length() > maxLength) {
+            out.append("… (").append(text.length()).append(" chars)");
+        }
+        return out.toString();
+    }
+
+    private record Preview(String text, int maxLength) {
+        @Override
+        public String toString() {
+            return truncate(text, maxLength);
+        }
+    }
+}
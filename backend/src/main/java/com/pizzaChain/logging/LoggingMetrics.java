@@ -0,0 +1,48 @@
+package com.pizzaChain.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.Appender;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.ILoggerFactory;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+
+/**
+ * Publishes what the production logging setup (logback-spring.xml, prod profile) throws away:
+ * logging.sampled.dropped counts events denied by {@link SamplingTurboFilter}, and
+ * logging.async.queued{appender} is the backlog of each async appender, which drops INFO and
+ * below once it is 80% full. Registers nothing when neither is configured.
+ */
+@Component
+public class LoggingMetrics {
+
+    public LoggingMetrics(MeterRegistry meterRegistry) {
+        ILoggerFactory factory = LoggerFactory.getILoggerFactory();
+        if (!(factory instanceof LoggerContext context)) {
+            return;
+        }
+        for (TurboFilter filter : context.getTurboFilterList()) {
+            if (filter instanceof SamplingTurboFilter sampling) {
+                FunctionCounter.builder("logging.sampled.dropped", sampling, SamplingTurboFilter::getDropped)
+                        .description("Log events dropped by sampling")
+                        .register(meterRegistry);
+            }
+        }
+        Iterator<Appender<ILoggingEvent>> appenders = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME).iteratorForAppenders();
+        while (appenders.hasNext()) {
+            if (appenders.next() instanceof AsyncAppender async) {
+                Gauge.builder("logging.async.queued", async, AsyncAppender::getNumberOfElementsInQueue)
+                        .description("Log events waiting for the async appender's worker")
+                        .tag("appender", async.getName())
+                        .register(meterRegistry);
+            }
+        }
+    }
+}
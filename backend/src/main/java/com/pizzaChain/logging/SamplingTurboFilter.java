@@ -0,0 +1,101 @@
+package com.pizzaChain.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rate limits chatty loggers before an event is even built. For every logger under one of the
+ * configured prefixes, the first perSecond events of each second pass; after that only every
+ * sampleEvery-th does (0 drops them all). WARN and ERROR always pass, as do loggers outside the
+ * prefixes. Configured in logback-spring.xml:
+ * <pre>
+ *   &lt;turboFilter class="com.pizzaChain.logging.SamplingTurboFilter"&gt;
+ *     &lt;loggers&gt;com.pizzaChain.chatbot,com.pizzaChain.diagnostics.sql.SLOW&lt;/loggers&gt;
+ *     &lt;perSecond&gt;20&lt;/perSecond&gt;
+ *     &lt;sampleEvery&gt;100&lt;/sampleEvery&gt;
+ *   &lt;/turboFilter&gt;
+ * </pre>
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private List<String> prefixes = List.of();
+    private int perSecond = 20;
+    private int sampleEvery = 100;
+
+    // One window per logger name; bounded by the number of classes under the prefixes
+    private final ConcurrentHashMap<String, Window> windows = new ConcurrentHashMap<>();
+    private final AtomicLong dropped = new AtomicLong();
+
+    /** Comma-separated logger name prefixes to sample */
+    public void setLoggers(String loggers) {
+        List<String> names = new ArrayList<>();
+        for (String name : loggers.split(",")) {
+            if (!name.isBlank()) {
+                names.add(name.trim());
+            }
+        }
+        this.prefixes = List.copyOf(names);
+    }
+
+    public void setPerSecond(int perSecond) {
+        this.perSecond = perSecond;
+    }
+
+    public void setSampleEvery(int sampleEvery) {
+        this.sampleEvery = sampleEvery;
+    }
+
+    /** Events denied so far */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // format is null for isXxxEnabled() checks, which must not use up the budget; events
+        // below the logger's level are denied by logback anyway
+        if (!isStarted() || format == null || level.isGreaterOrEqual(Level.WARN)
+                || !level.isGreaterOrEqual(logger.getEffectiveLevel()) || !sampled(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        long second = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+        if (windows.computeIfAbsent(logger.getName(), name -> new Window()).admit(second, perSecond, sampleEvery)) {
+            return FilterReply.NEUTRAL;
+        }
+        dropped.incrementAndGet();
+        return FilterReply.DENY;
+    }
+
+    private boolean sampled(String name) {
+        for (String prefix : prefixes) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Fixed one-second window; two threads crossing a second boundary may both reset it, which only loosens the limit */
+    private static final class Window {
+        private final AtomicLong second = new AtomicLong(Long.MIN_VALUE);
+        private final AtomicLong count = new AtomicLong();
+
+        boolean admit(long now, int perSecond, int sampleEvery) {
+            long current = second.get();
+            if (current != now && second.compareAndSet(current, now)) {
+                count.set(0);
+            }
+            long n = count.incrementAndGet();
+            return n <= perSecond || (sampleEvery > 0 && (n - perSecond) % sampleEvery == 0);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.pizzaChain.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Identifies the calling client for rate limiting by its remote address. X-Forwarded-For is
+ * client-controlled, so it is never read here: with server.forward-headers-strategy=native,
+ * Tomcat's RemoteIpValve replaces the remote address with the last hop appended by a trusted
+ * proxy (server.tomcat.remoteip.internal-proxies) and ignores anything the client prepended.
+ */
+public final class ClientKeyResolver {
+
+    private ClientKeyResolver() {}
+
+    public static String resolve(HttpServletRequest request) {
+        return request.getRemoteAddr();
+    }
+}
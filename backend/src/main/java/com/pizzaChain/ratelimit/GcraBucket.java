@@ -0,0 +1,36 @@
+package com.pizzaChain.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket expressed as GCRA (generic cell rate algorithm): the whole bucket state is one
+ * "theoretical arrival time" in System.nanoTime() units, updated with CAS. A check allocates
+ * nothing and never blocks.
+ */
+final class GcraBucket {
+
+    private final AtomicLong theoreticalArrival;
+
+    GcraBucket(long nowNanos) {
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * @param emissionIntervalNanos time to regain one token
+     * @param burstToleranceNanos   emissionInterval * burst capacity
+     * @return 0 when a token was taken, otherwise nanoseconds until one is available
+     */
+    long tryAcquire(long nowNanos, long emissionIntervalNanos, long burstToleranceNanos) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long newTat = Math.max(tat, nowNanos) + emissionIntervalNanos;
+            long excess = newTat - nowNanos - burstToleranceNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (theoreticalArrival.compareAndSet(tat, newTat)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.pizzaChain.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies one named limit to the HTTP method it is registered for and answers 429 with
+ * Retry-After when the client's bucket is empty.
+ */
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private final RateLimiter rateLimiter;
+    private final String endpoint;
+    private final String httpMethod;
+
+    public RateLimitInterceptor(RateLimiter rateLimiter, String endpoint, String httpMethod) {
+        this.rateLimiter = rateLimiter;
+        this.endpoint = endpoint;
+        this.httpMethod = httpMethod;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (!httpMethod.equalsIgnoreCase(request.getMethod())) {
+            return true;
+        }
+
+        long waitNanos = rateLimiter.tryAcquire(endpoint, ClientKeyResolver.resolve(request));
+        if (waitNanos == 0) {
+            return true;
+        }
+
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"Too many requests, retry in " + retryAfterSeconds + "s\"}");
+        return false;
+    }
+}
@@ -0,0 +1,26 @@
+package com.pizzaChain.ratelimit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Per-endpoint limits, e.g. ratelimit.limits.chat.burst=1 and ratelimit.limits.chat.refill-period=PT3S.
+ * Endpoints without an entry are not limited.
+ */
+@ConfigurationProperties("ratelimit")
+public record RateLimitProperties(boolean enabled,
+                                  long maxClients,
+                                  Duration idleExpiry,
+                                  Map<String, Limit> limits) {
+
+    public RateLimitProperties {
+        if (maxClients <= 0) maxClients = 100_000;
+        if (idleExpiry == null) idleExpiry = Duration.ofMinutes(10);
+        if (limits == null) limits = Map.of();
+    }
+
+    /** burst requests may be made at once; one more is allowed every refillPeriod */
+    public record Limit(int burst, Duration refillPeriod) {}
+}
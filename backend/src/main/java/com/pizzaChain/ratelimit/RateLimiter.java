@@ -0,0 +1,74 @@
+package com.pizzaChain.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-client, per-endpoint rate limiting. Buckets live in a size-bounded store that forgets
+ * clients after ratelimit.idle-expiry, so memory stays flat however many clients show up.
+ * Publishes ratelimit.requests{endpoint, outcome=allowed|limited} per configured endpoint and
+ * ratelimit.clients, the number of buckets held.
+ */
+@Component
+public class RateLimiter {
+
+    private record Policy(long emissionIntervalNanos, long burstToleranceNanos, Counter allowed, Counter limited) {}
+
+    private record BucketKey(String endpoint, String client) {}
+
+    private final boolean enabled;
+    private final Map<String, Policy> policies = new HashMap<>();
+    private final Cache<BucketKey, GcraBucket> buckets;
+
+    public RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.enabled();
+        properties.limits().forEach((endpoint, limit) -> {
+            long interval = limit.refillPeriod().toNanos();
+            policies.put(endpoint, new Policy(interval, interval * Math.max(1, limit.burst()),
+                    requestCounter(endpoint, "allowed", meterRegistry), requestCounter(endpoint, "limited", meterRegistry)));
+        });
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.maxClients())
+                .expireAfterAccess(properties.idleExpiry())
+                .build();
+        Gauge.builder("ratelimit.clients", this, RateLimiter::trackedClients)
+                .description("Client buckets currently held by the rate limiter")
+                .register(meterRegistry);
+    }
+
+    // Tagged by the configured endpoint name only; client keys would be an unbounded tag
+    private static Counter requestCounter(String endpoint, String outcome, MeterRegistry meterRegistry) {
+        return Counter.builder("ratelimit.requests")
+                .description("Rate-limited requests checked, by outcome")
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes one token for the client on the endpoint.
+     * @return 0 when the request may proceed, otherwise nanoseconds until it would be allowed
+     */
+    public long tryAcquire(String endpoint, String clientKey) {
+        Policy policy = policies.get(endpoint);
+        if (!enabled || policy == null) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        GcraBucket bucket = buckets.get(new BucketKey(endpoint, clientKey), key -> new GcraBucket(now));
+        long waitNanos = bucket.tryAcquire(now, policy.emissionIntervalNanos(), policy.burstToleranceNanos());
+        (waitNanos == 0 ? policy.allowed() : policy.limited()).increment();
+        return waitNanos;
+    }
+
+    public long trackedClients() {
+        return buckets.estimatedSize();
+    }
+}
@@ -0,0 +1,17 @@
+-- Indexes Hibernate's ddl-auto cannot express (expression and trigram indexes).
+-- Runs after the schema update (spring.jpa.defer-datasource-initialization=true),
+-- so every statement must be idempotent.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Backs CustomerRepository.searchByFullName: LOWER(first_name || ' ' || last_name) LIKE '%...%'
+CREATE INDEX IF NOT EXISTS idx_customers_full_name_trgm
+    ON customers USING gin (lower(first_name || ' ' || last_name) gin_trgm_ops);
+
+-- Backs the email half of CustomerRepository.searchByNameOrEmail*: LOWER(email) LIKE '%...%'
+CREATE INDEX IF NOT EXISTS idx_customers_email_trgm
+    ON customers USING gin (lower(email) gin_trgm_ops);
+
+-- Keyset order for searchByNameOrEmailFirst/After
+CREATE INDEX IF NOT EXISTS idx_customers_first_name_id
+    ON customers (first_name, id);
@@ -0,0 +1,291 @@
+package com.pizzaChain.chatbot;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pizzaChain.chatbot.cache.CaffeineChatResponseCache;
+import com.pizzaChain.chatbot.cache.ChatResponseCache;
+import com.pizzaChain.chatbot.client.OpenAiClient;
+import com.pizzaChain.chatbot.dto.ChatRequest;
+import com.pizzaChain.chatbot.dto.ChatResponse;
+import com.pizzaChain.chatbot.resilience.CircuitBreaker;
+import com.pizzaChain.chatbot.resilience.CircuitBreakerProperties;
+import com.pizzaChain.chatbot.service.ChatOutcome;
+import com.pizzaChain.chatbot.service.ChatService;
+import com.pizzaChain.chatbot.service.ChatStream;
+import com.pizzaChain.config.OpenAiClientConfig;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs ChatService against a local stub of the OpenAI API instead of api.openai.com.
+ */
+class ChatServiceStubServerTest {
+
+    private HttpServer server;
+    private final AtomicInteger status = new AtomicInteger(200);
+    private final AtomicReference<String> responseBody = new AtomicReference<>();
+    private final AtomicReference<String> receivedBody = new AtomicReference<>();
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private final CountDownLatch upstreamAborted = new CountDownLatch(1);
+    private final AtomicLong breakerClock = new AtomicLong();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ChatService chatService;
+    private CircuitBreaker breaker;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/chat/completions", exchange -> {
+            upstreamCalls.incrementAndGet();
+            receivedBody.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            byte[] bytes = responseBody.get().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status.get(), bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        // Fake streaming upstream: chunked transfer, one SSE event per flush, like OpenAI's "stream": true
+        server.createContext("/v1/stream/chat/completions", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                for (String token : new String[]{"We", " open", " at", " 11"}) {
+                    String chunk = "data: {\"choices\":[{\"delta\":{\"content\":\"" + token + "\"}}]}\n\n";
+                    out.write(chunk.getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                }
+                // What stream_options.include_usage adds after the last delta
+                out.write("data: {\"choices\":[],\"usage\":{\"prompt_tokens\":30,\"completion_tokens\":4}}\n\n"
+                        .getBytes(StandardCharsets.UTF_8));
+                out.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        // Upstream that never finishes its body: keeps a blank JSON prefix coming until the client hangs up
+        server.createContext("/v1/hang/chat/completions", exchange -> {
+            upstreamCalls.incrementAndGet();
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                for (int i = 0; i < 250; i++) {
+                    out.write(' ');
+                    out.flush();
+                    Thread.sleep(20);
+                }
+            } catch (IOException e) {
+                upstreamAborted.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        // Slow streaming upstream: one fragment every 20 ms until the client hangs up
+        server.createContext("/v1/slow/chat/completions", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                for (int i = 0; i < 250; i++) {
+                    out.write("data: {\"choices\":[{\"delta\":{\"content\":\" pizza\"}}]}\n\n".getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                    Thread.sleep(20);
+                }
+            } catch (IOException e) {
+                upstreamAborted.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.start();
+
+        chatService = chatServiceFor("http://127.0.0.1:" + server.getAddress().getPort() + "/v1");
+    }
+
+    private ChatService chatServiceFor(String baseUrl) {
+        ObjectMapper objectMapper = new ObjectMapper();
+        OpenAiClient client = new OpenAiClient(
+                new OpenAiClientConfig().openAiHttpClient(Duration.ofSeconds(2), true),
+                objectMapper, baseUrl, "test-key", Duration.ofSeconds(2));
+        breaker = new CircuitBreaker(
+                new CircuitBreakerProperties(true, 4, 2, 50, Duration.ofSeconds(5), 100, Duration.ofMinutes(1), 1),
+                breakerClock::get, (from, to) -> {});
+        ChatResponseCache cache = new CaffeineChatResponseCache(true, 100, Duration.ofMinutes(5), new SimpleMeterRegistry());
+        return new ChatService(client, cache, breaker, objectMapper, meterRegistry, 100, 0.7, Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+    }
+
+    @Test
+    void returnsFirstChoiceContent() {
+        responseBody.set("""
+                {"choices":[{"message":{"role":"assistant","content":"  We open at 11 AM!  "}}]}
+                """);
+
+        ChatResponse response = chatService.getChatResponse(new ChatRequest("what are your hours"), "gpt-3.5-turbo");
+
+        assertThat(response.reply()).isEqualTo("We open at 11 AM!");
+        assertThat(receivedBody.get()).contains("\"model\":\"gpt-3.5-turbo\"", "what are your hours");
+    }
+
+    @Test
+    void answersRepeatedQuestionFromCache() {
+        responseBody.set("{\"choices\":[{\"message\":{\"content\":\"Yes, within 5 miles.\"}}]}");
+
+        chatService.getChatResponseAsync(new ChatRequest("Do you deliver?"), "gpt-3.5-turbo").join();
+        ChatOutcome second = chatService.getChatResponseAsync(new ChatRequest("do you  DELIVER"), "gpt-3.5-turbo").join();
+
+        assertThat(second.status()).isEqualTo(ChatOutcome.Status.CACHED);
+        assertThat(second.response().reply()).isEqualTo("Yes, within 5 miles.");
+        assertThat(upstreamCalls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void mapsUpstreamRateLimitToRateLimitReply() {
+        status.set(429);
+        responseBody.set("{\"error\":{\"type\":\"requests\"}}");
+
+        ChatOutcome outcome = chatService.getChatResponseAsync(new ChatRequest("hi"), "gpt-3.5-turbo").join();
+
+        assertThat(outcome.status()).isEqualTo(ChatOutcome.Status.RATE_LIMITED);
+        assertThat(outcome.shouldFallback()).isTrue();
+    }
+
+    @Test
+    void streamsDeltasAsTheyArrive() {
+        ChatService streaming = chatServiceFor("http://127.0.0.1:" + server.getAddress().getPort() + "/v1/stream");
+        List<String> deltas = new CopyOnWriteArrayList<>();
+
+        ChatStream stream = streaming.streamChatResponse(new ChatRequest("when do you open"), "gpt-3.5-turbo", deltas::add);
+        ChatOutcome outcome = stream.outcome().join();
+
+        assertThat(deltas).containsExactly("We", " open", " at", " 11");
+        assertThat(outcome.status()).isEqualTo(ChatOutcome.Status.SUCCESS);
+        assertThat(outcome.response().reply()).isEqualTo("We open at 11");
+        assertThat(meterRegistry.get("chat.openai.tokens").tag("type", "completion").counter().count()).isEqualTo(4);
+        assertThat(meterRegistry.get("chat.openai.latency").tag("mode", "streaming").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void lastCoalescedWaiterLeavingAbortsUpstreamExchange() throws Exception {
+        ChatService hanging = chatServiceFor("http://127.0.0.1:" + server.getAddress().getPort() + "/v1/hang");
+
+        CompletableFuture<ChatOutcome> first = hanging.getChatResponseAsync(new ChatRequest("any specials"), "gpt-3.5-turbo");
+        CompletableFuture<ChatOutcome> second = hanging.getChatResponseAsync(new ChatRequest("Any specials?"), "gpt-3.5-turbo");
+
+        first.cancel(true);
+        assertThat(upstreamAborted.await(200, TimeUnit.MILLISECONDS)).isFalse();
+
+        second.cancel(true);
+        assertThat(upstreamAborted.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(upstreamCalls.get()).isEqualTo(1);
+        assertThat(breaker.snapshot().bufferedCalls()).isZero();
+    }
+
+    @Test
+    void abandonedHalfOpenTrialCallReturnsItsPermit() throws Exception {
+        ChatService hanging = chatServiceFor("http://127.0.0.1:" + server.getAddress().getPort() + "/v1/hang");
+        breaker.record(true, 0);
+        breaker.record(true, 0);
+        breakerClock.addAndGet(Duration.ofMinutes(2).toNanos());
+
+        // Takes the only half-open permit, then every waiter gives up on it
+        CompletableFuture<ChatOutcome> trial = hanging.getChatResponseAsync(new ChatRequest("any specials"), "gpt-3.5-turbo");
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (upstreamCalls.get() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        trial.cancel(true);
+
+        assertThat(upstreamAborted.await(2, TimeUnit.SECONDS)).isTrue();
+        while (meterRegistry.get("chat.openai.outcomes").tag("status", "cancelled").counter().count() == 0
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(meterRegistry.get("chat.openai.outcomes").tag("status", "cancelled").counter().count()).isEqualTo(1);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+    }
+
+    @Test
+    void clientDisconnectCancelsStreamWithoutCountingAgainstBreaker() throws Exception {
+        ChatService streaming = chatServiceFor("http://127.0.0.1:" + server.getAddress().getPort() + "/v1/slow");
+
+        // What ChatController's delta callback does once the browser has gone
+        ChatStream stream = streaming.streamChatResponse(new ChatRequest("tell me about pizza"), "gpt-3.5-turbo", delta -> {
+            throw new CancellationException("Client disconnected");
+        });
+        ChatOutcome outcome = stream.outcome().get(5, TimeUnit.SECONDS);
+
+        assertThat(outcome.status()).isEqualTo(ChatOutcome.Status.CANCELLED);
+        assertThat(upstreamAborted.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(breaker.snapshot().bufferedCalls()).isZero();
+        assertThat(meterRegistry.get("chat.openai.outcomes").tag("status", "cancelled").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void cancellingStreamAbortsUpstreamExchange() throws Exception {
+        ChatService streaming = chatServiceFor("http://127.0.0.1:" + server.getAddress().getPort() + "/v1/slow");
+        CountDownLatch firstDelta = new CountDownLatch(1);
+
+        ChatStream stream = streaming.streamChatResponse(new ChatRequest("tell me more about pizza"), "gpt-3.5-turbo",
+                delta -> firstDelta.countDown());
+        assertThat(firstDelta.await(5, TimeUnit.SECONDS)).isTrue();
+        // Emitter timeout / error
+        stream.cancel().run();
+
+        assertThat(stream.outcome().get(5, TimeUnit.SECONDS).status()).isEqualTo(ChatOutcome.Status.CANCELLED);
+        assertThat(upstreamAborted.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(breaker.snapshot().bufferedCalls()).isZero();
+    }
+
+    @Test
+    void recordsUpstreamLatencyOutcomesAndTokenUsage() {
+        responseBody.set("""
+                {"choices":[{"message":{"content":"Yes."}}],"usage":{"prompt_tokens":42,"completion_tokens":2}}
+                """);
+        chatService.getChatResponseAsync(new ChatRequest("do you deliver"), "gpt-3.5-turbo").join();
+        status.set(429);
+        chatService.getChatResponseAsync(new ChatRequest("and on sundays"), "gpt-3.5-turbo").join();
+
+        assertThat(meterRegistry.get("chat.openai.latency").tag("mode", "blocking").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("chat.openai.outcomes").tag("status", "success").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("chat.openai.outcomes").tag("status", "rate_limited").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("chat.openai.tokens").tag("type", "prompt").counter().count()).isEqualTo(42);
+        assertThat(meterRegistry.get("chat.openai.tokens").tag("type", "completion").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void openBreakerSkipsUpstream() {
+        status.set(503);
+        responseBody.set("{}");
+
+        chatService.getChatResponseAsync(new ChatRequest("one"), "gpt-3.5-turbo").join();
+        chatService.getChatResponseAsync(new ChatRequest("two"), "gpt-3.5-turbo").join();
+        ChatOutcome third = chatService.getChatResponseAsync(new ChatRequest("three"), "gpt-3.5-turbo").join();
+
+        assertThat(third.status()).isEqualTo(ChatOutcome.Status.CIRCUIT_OPEN);
+        assertThat(upstreamCalls.get()).isEqualTo(2);
+    }
+}
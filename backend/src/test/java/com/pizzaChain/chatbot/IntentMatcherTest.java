@@ -0,0 +1,37 @@
+package com.pizzaChain.chatbot;
+
+import com.pizzaChain.chatbot.intent.IntentMatcher;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntentMatcherTest {
+
+    private final IntentMatcher matcher = new IntentMatcher(List.of(
+            List.of("hello", "hi", "good morning"),
+            List.of("menu", "pizza", "what do you have"),
+            List.of("order", "get"),
+            List.of("how much", "price")
+    ));
+
+    @Test
+    void matchesWholeWordsOnly() {
+        assertThat(matcher.classify("Is this together?")).isEqualTo(IntentMatcher.NO_MATCH);
+        assertThat(matcher.classify("Hi!")).isEqualTo(0);
+        assertThat(matcher.classify("can I GET one")).isEqualTo(2);
+    }
+
+    @Test
+    void matchesMultiWordKeywordsCaseInsensitively() {
+        assertThat(matcher.classify("How much is a large?")).isEqualTo(3);
+        assertThat(matcher.classify("So, what do you have today")).isEqualTo(1);
+    }
+
+    @Test
+    void earlierIntentWinsWhenSeveralMatch() {
+        assertThat(matcher.classify("I want to order a pizza")).isEqualTo(1);
+        assertThat(matcher.classify("pizza price, good morning")).isEqualTo(0);
+    }
+}
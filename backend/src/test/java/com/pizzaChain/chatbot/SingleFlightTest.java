@@ -0,0 +1,65 @@
+package com.pizzaChain.chatbot;
+
+import com.pizzaChain.chatbot.service.SingleFlight;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    void concurrentCallersShareOneUpstreamCall() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+
+        CompletableFuture<String> first = singleFlight.execute("hours", () -> {
+            calls.incrementAndGet();
+            return upstream;
+        }, Duration.ofSeconds(5));
+        CompletableFuture<String> second = singleFlight.execute("hours", () -> {
+            calls.incrementAndGet();
+            return upstream;
+        }, Duration.ofSeconds(5));
+
+        upstream.complete("11 AM to 11 PM");
+
+        assertThat(first.get()).isEqualTo("11 AM to 11 PM");
+        assertThat(second.get()).isEqualTo("11 AM to 11 PM");
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(singleFlight.inFlightCount()).isZero();
+    }
+
+    @Test
+    void lastWaiterLeavingCancelsUpstream() {
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+
+        CompletableFuture<String> first = singleFlight.execute("menu", () -> upstream, Duration.ofSeconds(5));
+        CompletableFuture<String> second = singleFlight.execute("menu", () -> upstream, Duration.ofSeconds(5));
+
+        first.cancel(true);
+        assertThat(upstream).isNotDone();
+
+        second.cancel(true);
+        assertThat(upstream).isCancelled();
+        assertThat(singleFlight.inFlightCount()).isZero();
+    }
+
+    @Test
+    void waitIsBoundedPerCaller() {
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+
+        CompletableFuture<String> view = singleFlight.execute("price", () -> upstream, Duration.ofMillis(50));
+
+        assertThatThrownBy(view::get).isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(TimeoutException.class);
+    }
+}
@@ -0,0 +1,47 @@
+package com.pizzaChain.customerProfile;
+
+import com.pizzaChain.customerProfile.importer.CsvRecordReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvRecordReaderTest {
+
+    @Test
+    void readsPlainAndQuotedFields() throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader(
+                "name,email\r\n" +
+                "Ann,ann@example.com\r\n" +
+                "\"Smith, \"\"Bob\"\"\",bob@example.com\n"));
+
+        assertThat(reader.next()).containsExactly("name", "email");
+        assertThat(reader.next()).containsExactly("Ann", "ann@example.com");
+        assertThat(reader.next()).containsExactly("Smith, \"Bob\"", "bob@example.com");
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    void keepsLineBreaksInsideQuotesAndReportsStartLine() throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader(
+                "a,\"multi\nline\"\nb,c"));
+
+        List<String> first = reader.next();
+        assertThat(first).containsExactly("a", "multi\nline");
+        assertThat(reader.recordLine()).isEqualTo(1);
+
+        assertThat(reader.next()).containsExactly("b", "c");
+        assertThat(reader.recordLine()).isEqualTo(3);
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    void keepsEmptyTrailingField() throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("x,,\n"));
+
+        assertThat(reader.next()).containsExactly("x", "", "");
+    }
+}
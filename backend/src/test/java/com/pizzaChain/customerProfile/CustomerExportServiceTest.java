@@ -0,0 +1,98 @@
+package com.pizzaChain.customerProfile;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pizzaChain.customerProfile.exporter.CustomerExportService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A million rows take minutes; runs with -Pslow-tests in its own fixed-heap JVM
+@Tag("slow")
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class CustomerExportServiceTest {
+
+    private static final int CUSTOMERS = 1_000_000;
+    private static final long MAX_HEAP_GROWTH = 64L * 1024 * 1024;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void exportsAMillionCustomersInConstantMemory() {
+        jdbcTemplate.update("""
+                INSERT INTO customers (id, first_name, last_name, email, phone, username, password,
+                                       dob, gender, address, postal_code, country, state, city, newsletter, terms)
+                SELECT RANDOM_UUID(), 'First' || X, 'Last', 'user' || X || '@example.com', '5551234567',
+                       'user' || X, 'Secret123', DATE '1990-01-02', 'F', X || ' Main St, Apt 1',
+                       '12345', 'US', 'CA', 'LA', TRUE, TRUE
+                FROM SYSTEM_RANGE(1, ?)""", CUSTOMERS);
+        jdbcTemplate.update("""
+                INSERT INTO customer_interests (customer_id, interests)
+                SELECT id, 'pizza' FROM customers WHERE first_name LIKE '%0'""");
+
+        CustomerExportService exporter = new CustomerExportService(entityManager, transactionManager,
+                new ObjectMapper().findAndRegisterModules(), 500);
+        LineSink sink = new LineSink();
+
+        long exported = exporter.export(CustomerExportService.Format.NDJSON, sink);
+
+        assertThat(exported).isEqualTo(CUSTOMERS);
+        assertThat(sink.lines).isEqualTo(CUSTOMERS);
+        assertThat(sink.linesWithInterests).isEqualTo(CUSTOMERS / 10);
+        assertThat(sink.maxHeapGrowth).isLessThan(MAX_HEAP_GROWTH);
+    }
+
+    /** Discards output but counts lines and samples the live heap every 100k lines */
+    private static final class LineSink extends OutputStream {
+
+        private static final String INTERESTS = "\"interests\":[\"pizza\"]";
+
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        private final long baseline = usedHeap();
+        long lines;
+        long linesWithInterests;
+        long maxHeapGrowth;
+
+        @Override
+        public void write(int b) {
+            if (b != '\n') {
+                line.write(b);
+                return;
+            }
+            lines++;
+            if (line.toString(StandardCharsets.UTF_8).contains(INTERESTS)) {
+                linesWithInterests++;
+            }
+            line.reset();
+            if (lines % 100_000 == 0) {
+                maxHeapGrowth = Math.max(maxHeapGrowth, usedHeap() - baseline);
+            }
+        }
+
+        private static long usedHeap() {
+            System.gc();
+            Runtime runtime = Runtime.getRuntime();
+            return runtime.totalMemory() - runtime.freeMemory();
+        }
+    }
+}
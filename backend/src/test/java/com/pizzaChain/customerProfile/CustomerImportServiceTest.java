@@ -0,0 +1,87 @@
+package com.pizzaChain.customerProfile;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.pizzaChain.customerProfile.importer.CustomerImportService;
+import com.pizzaChain.customerProfile.importer.ImportReport;
+import com.pizzaChain.customerProfile.repository.CustomerRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Duplicate emails are rejected whether they repeat within a chunk or in a later one, without the
+ * import remembering every email it has read.
+ */
+@DataJpaTest(properties = "customer.import.chunk-size=2")
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(CustomerImportService.class)
+// Chunks commit in their own transactions
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CustomerImportServiceTest {
+
+    @TestConfiguration
+    static class Beans {
+        @Bean
+        LocalValidatorFactoryBean validator() {
+            return new LocalValidatorFactoryBean();
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper().registerModule(new JavaTimeModule());
+        }
+    }
+
+    @Autowired
+    private CustomerImportService importService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Test
+    void duplicateEmailsAreRejectedWithinAndAcrossChunks() throws Exception {
+        String body = String.join("\n",
+                row("ann@example.com"),
+                row("ann@example.com"),   // same chunk as line 1
+                row("bob@example.com"),
+                row("ann@example.com"),   // a later chunk: line 1 is already committed
+                row("cid@example.com"));
+
+        try {
+            ImportReport report = importService.importCustomers(
+                    new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), CustomerImportService.Format.NDJSON);
+
+            assertThat(report.rowsRead()).isEqualTo(5);
+            assertThat(report.imported()).isEqualTo(3);
+            assertThat(report.errors()).containsExactly(
+                    new ImportReport.RowError(2, Map.of("email", "Email appears earlier in this import.")),
+                    new ImportReport.RowError(4, Map.of("email", "Email is already registered.")));
+            assertThat(customerRepository.count()).isEqualTo(3);
+        } finally {
+            customerRepository.deleteAll();
+        }
+    }
+
+    private static String row(String email) {
+        return """
+                {"firstName":"Ann","lastName":"Smith","email":"%s","phone":"5551234567","password":"Secret123",\
+                "dob":"1990-01-02","gender":"F","address":"1 Main St","postalCode":"12345","country":"US",\
+                "state":"NY","city":"Albany","terms":true}""".formatted(email);
+    }
+}
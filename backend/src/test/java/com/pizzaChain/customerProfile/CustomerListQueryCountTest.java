@@ -0,0 +1,131 @@
+package com.pizzaChain.customerProfile;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pizzaChain.customerProfile.model.Customer;
+import com.pizzaChain.customerProfile.repository.CustomerRepository;
+import com.pizzaChain.customerProfile.service.CustomerService;
+import com.pizzaChain.customerProfile.storage.PhotoStorageService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Statement budgets for the customer list endpoints: each must cost a fixed number of
+ * statements however many customers are on the page, interests included, and read
+ * projections rather than entities.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(CustomerService.class)
+class CustomerListQueryCountTest {
+
+    private static final int PAGE_SIZE = 50;
+
+    @MockitoBean
+    private PhotoStorageService photoStorageService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            Customer customer = TestCustomers.customer("ann" + i + "@example.com");
+            customer.setFirstName("Ann" + i);
+            customer.setInterests(List.of("pizza", "pasta"));
+            customerRepository.save(customer);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void pagedListUsesCountSelectAndOneInterestsQuery() {
+        assertStatements(3, () -> customerService.getCustomerPage(PageRequest.of(0, PAGE_SIZE)).getContent());
+    }
+
+    @Test
+    void nameSearchUsesSelectAndOneInterestsQuery() {
+        assertStatements(2, () -> customerService.getCustomersByName("smith", PageRequest.of(0, PAGE_SIZE)).getContent());
+    }
+
+    @Test
+    void nameOrEmailSearchUsesCountSelectAndOneInterestsQuery() {
+        assertStatements(3, () -> customerService.searchByNameOrEmail("ann",
+                PageRequest.of(0, PAGE_SIZE, Sort.by("firstName"))).getContent());
+    }
+
+    @Test
+    void keysetSearchUsesSelectAndOneInterestsQuery() {
+        assertStatements(2, () -> customerService.searchByNameOrEmail("ann", null, PAGE_SIZE).content());
+    }
+
+    @Test
+    void readsNeverHydrateEntities() {
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        customerService.getCustomerPage(PageRequest.of(0, PAGE_SIZE));
+        customerService.searchByNameOrEmail("ann", null, PAGE_SIZE);
+
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    /** Runs the call, serializes its result as the controller would, and checks the statement count */
+    private void assertStatements(long budget, Supplier<List<?>> call) {
+        // Start cold: nothing in the persistence context or the second-level cache
+        entityManager.clear();
+        entityManagerFactory.getCache().evictAll();
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        List<?> result = call.get();
+        String json = serialize(result);
+
+        assertThat(result).hasSize(PAGE_SIZE);
+        assertThat(json).contains("\"interests\":[\"pizza\",\"pasta\"]");
+        assertThat(statistics.getPrepareStatementCount())
+                .as("statements for a page of %d customers", PAGE_SIZE)
+                .isLessThanOrEqualTo(budget);
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private String serialize(List<?> result) {
+        try {
+            return objectMapper.writeValueAsString(result);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.pizzaChain.customerProfile;
+
+import com.pizzaChain.config.CustomerCacheConfig;
+import com.pizzaChain.customerProfile.cache.CustomerCacheProperties;
+import com.pizzaChain.customerProfile.model.Customer;
+import com.pizzaChain.customerProfile.repository.CustomerRepository;
+import com.pizzaChain.customerProfile.service.CustomerService;
+import com.pizzaChain.customerProfile.storage.PhotoStorageService;
+import com.pizzaChain.customerProfile.storage.PhotoVariants;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.CompletableFuture;
+
+import static com.pizzaChain.customerProfile.TestCustomers.customer;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Writing back generated photo variants must replace only that customer's second-level cache
+ * entry; a bulk UPDATE would have emptied the whole customers region on every upload.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CustomerService.class, CustomerCacheConfig.class})
+// Commits for real: the cache is only written on commit
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CustomerPhotoVariantsCacheTest {
+
+    @TestConfiguration
+    @EnableConfigurationProperties(CustomerCacheProperties.class)
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @MockitoBean
+    private PhotoStorageService photoStorageService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void tearDown() {
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void variantWriteBackKeepsOtherCustomersCached() {
+        Customer other = customerRepository.save(customer("bob@example.com"));
+        String photoPath = "/uploads/cas/ab/cd/abcd.png";
+        PhotoVariants variants = new PhotoVariants("/uploads/cas/ab/cd/abcd_64.jpg",
+                "/uploads/cas/ab/cd/abcd_256.jpg", "/uploads/cas/ab/cd/abcd_1024.jpg");
+        when(photoStorageService.generateVariants(photoPath)).thenReturn(CompletableFuture.completedFuture(variants));
+
+        Customer ann = customer("ann@example.com");
+        ann.setPhotoPath(photoPath);
+        Customer withPhoto = customerService.createCustomer(ann);
+
+        assertThat(entityManagerFactory.getCache().contains(Customer.class, other.getId())).isTrue();
+        assertThat(entityManagerFactory.getCache().contains(Customer.class, withPhoto.getId())).isTrue();
+        assertThat(customerRepository.findById(withPhoto.getId()).orElseThrow().getPhotoWebPath())
+                .isEqualTo(variants.webPath());
+    }
+
+    @Test
+    void variantsForAReplacedPhotoAreDropped() {
+        String oldPhoto = "/uploads/cas/ab/cd/abcd.png";
+        CompletableFuture<PhotoVariants> rendering = new CompletableFuture<>();
+        when(photoStorageService.generateVariants(oldPhoto)).thenReturn(rendering);
+        Customer ann = customer("ann@example.com");
+        ann.setPhotoPath(oldPhoto);
+        Customer customer = customerService.createCustomer(ann);
+
+        customer.setPhotoPath("/uploads/cas/ef/01/ef01.png");
+        when(photoStorageService.generateVariants(customer.getPhotoPath())).thenReturn(new CompletableFuture<>());
+        customerService.updateCustomer(customer);
+        rendering.complete(new PhotoVariants("/uploads/cas/ab/cd/abcd_64.jpg",
+                "/uploads/cas/ab/cd/abcd_256.jpg", "/uploads/cas/ab/cd/abcd_1024.jpg"));
+
+        Customer reloaded = customerRepository.findById(customer.getId()).orElseThrow();
+        assertThat(reloaded.getPhotoPath()).isEqualTo("/uploads/cas/ef/01/ef01.png");
+        assertThat(reloaded.getPhotoWebPath()).isNull();
+    }
+}
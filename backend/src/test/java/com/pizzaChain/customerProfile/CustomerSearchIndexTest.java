@@ -0,0 +1,163 @@
+package com.pizzaChain.customerProfile;
+
+import com.pizzaChain.customerProfile.repository.CustomerRepository;
+import com.pizzaChain.diagnostics.RepositoryInstrumentationConfig;
+import com.pizzaChain.diagnostics.sql.ExplainSampler;
+import com.pizzaChain.diagnostics.sql.RequestStatementTracker;
+import com.pizzaChain.diagnostics.sql.SqlDiagnosticsProperties;
+import com.pizzaChain.diagnostics.sql.SqlInstrumentationConfig;
+import com.pizzaChain.diagnostics.sql.StatementStatistics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The customer searches against real PostgreSQL: db/indexes.sql must apply at startup (the context
+ * fails otherwise), the planner must pick the trigram indexes for the repository's own SQL, and
+ * search latency must stay roughly flat while the table grows tenfold.
+ * <p>
+ * Creates and drops its schema, so point SEARCH_TEST_DATABASE_URL (plus _USERNAME and _PASSWORD)
+ * at a scratch database, then run it with -Pslow-tests.
+ */
+@Tag("slow")
+@EnabledIfEnvironmentVariable(named = "SEARCH_TEST_DATABASE_URL", matches = ".+")
+@DataJpaTest(properties = {
+        "spring.datasource.url=${SEARCH_TEST_DATABASE_URL}",
+        "spring.datasource.username=${SEARCH_TEST_DATABASE_USERNAME:postgres}",
+        "spring.datasource.password=${SEARCH_TEST_DATABASE_PASSWORD:}",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.sql.init.mode=always",
+        // Every SELECT is explained once, with its own bind parameters, by the production sampler
+        "diagnostics.sql.explain.enabled=true",
+        "diagnostics.sql.explain.threshold=0ms",
+        "diagnostics.sql.explain.min-interval=1h"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({RepositoryInstrumentationConfig.class, SqlInstrumentationConfig.class, StatementStatistics.class,
+        RequestStatementTracker.class, ExplainSampler.class})
+class CustomerSearchIndexTest {
+
+    private static final int SMALL = 20_000;
+    private static final int LARGE = 200_000;
+    private static final int SAMPLES = 51;
+
+    @TestConfiguration
+    @EnableConfigurationProperties(SqlDiagnosticsProperties.class)
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private StatementStatistics statistics;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE customers CASCADE");
+        statistics.reset();
+    }
+
+    @Test
+    void searchesUseTheTrigramIndexes() throws InterruptedException {
+        growTo(LARGE);
+
+        customerRepository.searchByFullName("%first4242 last%", PageRequest.of(0, 20));
+        customerRepository.searchByNameOrEmailFirst("%user4242@%", PageRequest.of(0, 21));
+
+        assertThat(planOf("searchByFullName"))
+                .contains("idx_customers_full_name_trgm")
+                .doesNotContain("Seq Scan");
+        assertThat(planOf("searchByNameOrEmailFirst"))
+                .contains("idx_customers_full_name_trgm", "idx_customers_email_trgm")
+                .doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void searchLatencyStaysFlatAsTheTableGrows() {
+        IntConsumer search = i -> customerRepository.searchByFullName(
+                "%first" + (1000 + i * 37) + " last%", PageRequest.of(0, 20));
+
+        growTo(SMALL);
+        long small = medianNanos(search);
+        growTo(LARGE);
+        long large = medianNanos(search);
+
+        // A sequential scan would take about ten times as long on ten times the rows
+        assertThat(large).isLessThan(3 * small);
+    }
+
+    /** Adds customers "First{n} Last{n}" up to the given count and refreshes the planner statistics */
+    private void growTo(int customers) {
+        Integer current = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customers", Integer.class);
+        jdbcTemplate.update("""
+                INSERT INTO customers (id, first_name, last_name, email, phone, username, password,
+                                       dob, gender, address, postal_code, country, state, city, newsletter, terms)
+                SELECT gen_random_uuid(), 'First' || x, 'Last' || x, 'user' || x || '@example.com', '5551234567',
+                       'user' || x, 'Secret123', DATE '1990-01-02', 'F', x || ' Main St, Apt 1',
+                       '12345', 'US', 'CA', 'LA', TRUE, TRUE
+                FROM generate_series(?, ?) AS x""", current + 1, customers);
+        jdbcTemplate.execute("ANALYZE customers");
+    }
+
+    private static long medianNanos(IntConsumer search) {
+        for (int i = 0; i < 10; i++) {
+            search.accept(i);
+        }
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            search.accept(i);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[SAMPLES / 2];
+    }
+
+    /** Waits for the sampler's EXPLAIN of the statement the repository method ran */
+    private String planOf(String repositoryMethod) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (System.nanoTime() < deadline) {
+            String plan = statistics.top(100).stream()
+                    .filter(s -> s.callers().contains("CustomerRepository." + repositoryMethod))
+                    .map(StatementStatistics.StatementSummary::plan)
+                    .filter(Objects::nonNull)
+                    .map(StatementStatistics.Plan::text)
+                    .findFirst().orElse(null);
+            if (plan != null) {
+                return plan;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("No plan captured for CustomerRepository." + repositoryMethod);
+    }
+}
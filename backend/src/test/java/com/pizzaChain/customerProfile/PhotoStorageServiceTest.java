@@ -0,0 +1,166 @@
+package com.pizzaChain.customerProfile;
+
+import com.pizzaChain.customerProfile.repository.CustomerRepository;
+import com.pizzaChain.customerProfile.storage.PhotoGarbageCollector;
+import com.pizzaChain.customerProfile.storage.PhotoStorageProperties;
+import com.pizzaChain.customerProfile.storage.PhotoStorageService;
+import com.pizzaChain.customerProfile.storage.PhotoVariants;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PhotoStorageServiceTest {
+
+    @TempDir
+    Path uploads;
+
+    private PhotoStorageProperties properties;
+    private PhotoStorageService storage;
+
+    @BeforeEach
+    void setUp() {
+        properties = new PhotoStorageProperties(uploads.toString(), 1, 4, 0.85f,
+                new PhotoStorageProperties.Serving(Duration.ofDays(1), DataSize.ofKilobytes(256),
+                        DataSize.ofKilobytes(64), DataSize.ofMegabytes(1)),
+                new PhotoStorageProperties.Gc(true, Duration.ofHours(1), Duration.ZERO));
+        storage = new PhotoStorageService(properties, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        storage.shutdown();
+    }
+
+    @Test
+    void storesUploadAndGeneratesScaledVariants() throws Exception {
+        byte[] png = png(2000, 1000);
+        String photoPath = storage.store(new MockMultipartFile("photo", "me.PNG", "image/png", png));
+
+        assertThat(photoPath).matches("/uploads/cas/[0-9a-f]{2}/[0-9a-f]{2}/[0-9a-f]{64}\\.png");
+        assertThat(Files.readAllBytes(storage.resolve(photoPath))).isEqualTo(png);
+
+        PhotoVariants variants = storage.generateVariants(photoPath).join();
+
+        assertThat(size(variants.webPath())).isEqualTo(new int[]{1024, 512});
+        assertThat(size(variants.avatarPath())).isEqualTo(new int[]{256, 128});
+        assertThat(size(variants.thumbPath())).isEqualTo(new int[]{64, 32});
+    }
+
+    @Test
+    void identicalUploadsShareOneStoredCopy() throws Exception {
+        byte[] png = png(10, 10);
+        String first = storage.store(new MockMultipartFile("photo", "a.png", "image/png", png));
+        // The client's file name does not decide the stored name: the decoded format does
+        String second = storage.store(new MockMultipartFile("photo", "b.JPEG", "image/jpeg", png));
+        String other = storage.store(new MockMultipartFile("photo", "c.png", "image/png", png(11, 10)));
+
+        assertThat(second).isEqualTo(first);
+        assertThat(other).isNotEqualTo(first);
+        try (Stream<Path> files = Files.walk(uploads)) {
+            assertThat(files.filter(Files::isRegularFile)).hasSize(2);
+        }
+    }
+
+    @Test
+    void fileThatIsNotAnImageIsStoredWithoutExtension() throws Exception {
+        String stored = storage.store(new MockMultipartFile("photo", "evil.html", "image/png",
+                "<script>alert(1)</script>".getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(stored).matches("/uploads/cas/[0-9a-f]{2}/[0-9a-f]{2}/[0-9a-f]{64}");
+    }
+
+    @Test
+    void garbageCollectorRemovesOnlyUnreferencedPhotosAndTheirVariants() throws Exception {
+        String kept = storage.store(new MockMultipartFile("photo", "a.png", "image/png", png(300, 300)));
+        String orphan = storage.store(new MockMultipartFile("photo", "b.png", "image/png", png(301, 300)));
+        PhotoVariants orphanVariants = storage.generateVariants(orphan).join();
+
+        CustomerRepository customers = mock(CustomerRepository.class);
+        when(customers.findPhotoPathsStartingWith(anyString())).thenReturn(Set.of(kept));
+
+        int deleted = new PhotoGarbageCollector(storage, customers, properties).sweep();
+
+        assertThat(deleted).isEqualTo(4);
+        assertThat(storage.resolve(kept)).exists();
+        assertThat(storage.resolve(orphan)).doesNotExist();
+        assertThat(storage.resolve(orphanVariants.thumbPath())).doesNotExist();
+    }
+
+    @Test
+    void reuploadKeepsAStalePhotoFromBeingCollected() throws Exception {
+        byte[] png = png(12, 10);
+        String photoPath = storage.store(new MockMultipartFile("photo", "a.png", "image/png", png));
+        Path file = storage.resolve(photoPath);
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(Duration.ofDays(2))));
+        PhotoStorageProperties withGrace = new PhotoStorageProperties(uploads.toString(), 1, 4, 0.85f,
+                properties.serving(), new PhotoStorageProperties.Gc(true, Duration.ofHours(1), Duration.ofDays(1)));
+        CustomerRepository customers = mock(CustomerRepository.class);
+        when(customers.findPhotoPathsStartingWith(anyString())).thenReturn(Set.of());
+
+        // A new customer uploads the same bytes before their row references the digest
+        assertThat(storage.store(new MockMultipartFile("photo", "b.png", "image/png", png))).isEqualTo(photoPath);
+
+        assertThat(new PhotoGarbageCollector(storage, customers, withGrace).sweep()).isZero();
+        assertThat(file).exists();
+    }
+
+    @Test
+    void concurrentVariantJobsForTheSameDigestDoNotShareATempFile() throws Exception {
+        PhotoStorageProperties twoWorkers = new PhotoStorageProperties(uploads.toString(), 2, 4, 0.85f,
+                properties.serving(), properties.gc());
+        PhotoStorageService parallel = new PhotoStorageService(twoWorkers, new SimpleMeterRegistry());
+        try {
+            for (int i = 0; i < 10; i++) {
+                String photoPath = parallel.store(new MockMultipartFile("photo", "a.png", "image/png", png(400 + i, 300)));
+                CompletableFuture<PhotoVariants> first = parallel.generateVariants(photoPath);
+                CompletableFuture<PhotoVariants> second = parallel.generateVariants(photoPath);
+
+                assertThat(second.join()).isEqualTo(first.join());
+            }
+            try (Stream<Path> files = Files.walk(uploads)) {
+                assertThat(files.filter(file -> file.toString().endsWith(".part"))).isEmpty();
+            }
+        } finally {
+            parallel.shutdown();
+        }
+    }
+
+    @Test
+    void rejectsPathsOutsideTheUploadRoot() {
+        assertThat(storage.resolve("/uploads/../secret.txt")).isNull();
+        assertThat(storage.generateVariants("/etc/passwd")).isCompletedExceptionally();
+    }
+
+    private int[] size(String webPath) throws Exception {
+        BufferedImage image = ImageIO.read(storage.resolve(webPath).toFile());
+        return new int[]{image.getWidth(), image.getHeight()};
+    }
+
+    private static byte[] png(int width, int height) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB), "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,26 @@
+package com.pizzaChain.customerProfile;
+
+import com.pizzaChain.customerProfile.model.Customer;
+
+import java.time.LocalDate;
+
+/** Valid, unsaved customers for tests that need rows to work with */
+public final class TestCustomers {
+
+    private TestCustomers() {
+    }
+
+    /** A customer that passes validation; the password is "Secret123" */
+    public static Customer customer(String email) {
+        Customer customer = new Customer();
+        customer.setFirstName("Ann");
+        customer.setLastName("Smith");
+        customer.setEmail(email);
+        customer.setPhone("5551234567");
+        customer.setPassword("Secret123");
+        customer.setDob(LocalDate.of(1990, 1, 2));
+        customer.setNewsletter(true);
+        customer.setTerms(true);
+        return customer;
+    }
+}
@@ -0,0 +1,43 @@
+package com.pizzaChain.diagnostics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdminTokenInterceptorTest {
+
+    @Test
+    void requiresTheConfiguredToken() throws Exception {
+        AdminTokenInterceptor interceptor = new AdminTokenInterceptor(new AdminProperties("s3cret"));
+
+        MockHttpServletResponse missing = new MockHttpServletResponse();
+        assertThat(interceptor.preHandle(request(null), missing, null)).isFalse();
+        assertThat(missing.getStatus()).isEqualTo(401);
+
+        MockHttpServletResponse wrong = new MockHttpServletResponse();
+        assertThat(interceptor.preHandle(request("s3cre"), wrong, null)).isFalse();
+        assertThat(wrong.getStatus()).isEqualTo(401);
+        assertThat(wrong.getContentAsString()).contains("\"error\"");
+
+        assertThat(interceptor.preHandle(request("s3cret"), new MockHttpServletResponse(), null)).isTrue();
+    }
+
+    @Test
+    void blankTokenDisablesTheAdminApi() throws Exception {
+        AdminTokenInterceptor interceptor = new AdminTokenInterceptor(new AdminProperties(""));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertThat(interceptor.preHandle(request(""), response, null)).isFalse();
+        assertThat(response.getStatus()).isEqualTo(404);
+    }
+
+    private static MockHttpServletRequest request(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/admin/jfr/start");
+        if (token != null) {
+            request.addHeader(AdminTokenInterceptor.HEADER, token);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,75 @@
+package com.pizzaChain.diagnostics;
+
+import com.pizzaChain.diagnostics.jfr.JfrProperties;
+import com.pizzaChain.diagnostics.jfr.JfrRecordingService;
+import com.pizzaChain.diagnostics.jfr.OpenAiCallEvent;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JfrRecordingServiceTest {
+
+    private final JfrRecordingService service = new JfrRecordingService(
+            new JfrProperties(Duration.ofMinutes(5), Duration.ofMinutes(10), DataSize.ofMegabytes(64), "default"));
+
+    @AfterEach
+    void tearDown() {
+        service.close();
+    }
+
+    @Test
+    void recordingContainsApplicationEventsOnlyWhileRunning() throws Exception {
+        OpenAiCallEvent before = OpenAiCallEvent.start("gpt-test", "blocking");
+        assertThat(before.isEnabled()).isFalse();
+
+        JfrRecordingService.Status started = service.start(Duration.ofHours(2), null);
+        assertThat(started.state()).isEqualTo("RUNNING");
+        // Capped at the maximum duration
+        assertThat(started.duration()).isEqualTo(Duration.ofMinutes(10));
+
+        OpenAiCallEvent event = OpenAiCallEvent.start("gpt-test", "blocking");
+        event.httpStatus(200);
+        event.finish("SUCCESS");
+        assertThat(service.stop().state()).isEqualTo("STOPPED");
+
+        Path file = service.dump();
+        try {
+            List<RecordedEvent> calls = RecordingFile.readAllEvents(file).stream()
+                    .filter(e -> e.getEventType().getName().equals("com.pizzaChain.OpenAiCall"))
+                    .toList();
+            assertThat(calls).hasSize(1);
+            assertThat(calls.get(0).getString("model")).isEqualTo("gpt-test");
+            assertThat(calls.get(0).getInt("httpStatus")).isEqualTo(200);
+            assertThat(calls.get(0).getString("outcome")).isEqualTo("SUCCESS");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void onlyOneRecordingAtATime() {
+        service.start(null, null);
+        assertThatThrownBy(() -> service.start(null, null)).isInstanceOf(IllegalStateException.class);
+
+        service.stop();
+        // A stopped recording is replaced by the next one
+        assertThat(service.start(Duration.ofMinutes(1), "default").duration()).isEqualTo(Duration.ofMinutes(1));
+    }
+
+    @Test
+    void unknownSettingsAndMissingRecordingAreRejected() {
+        assertThatThrownBy(() -> service.start(null, "no-such-settings")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(service::dump).isInstanceOf(IllegalStateException.class);
+        assertThat(service.status().state()).isEqualTo("NONE");
+    }
+}
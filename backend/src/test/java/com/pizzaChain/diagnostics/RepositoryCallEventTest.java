@@ -0,0 +1,58 @@
+package com.pizzaChain.diagnostics;
+
+import com.pizzaChain.customerProfile.model.Customer;
+import com.pizzaChain.customerProfile.repository.CustomerRepository;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static com.pizzaChain.customerProfile.TestCustomers.customer;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Repository proxies carry the RepositoryCallInterceptor, which reports each call with its row count.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(RepositoryInstrumentationConfig.class)
+class RepositoryCallEventTest {
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Test
+    void repositoryCallsAreRecordedWithRows() throws Exception {
+        Path file = Files.createTempFile("repository-calls", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.pizzaChain.RepositoryCall");
+            recording.start();
+            UUID ann = customerRepository.save(customer("ann@example.com")).getId();
+            UUID bob = customerRepository.save(customer("bob@example.com")).getId();
+            customerRepository.findAllById(List.of(ann, bob));
+            customerRepository.findById(UUID.randomUUID());
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            assertThat(events).allSatisfy(e -> assertThat(e.getString("repository")).isEqualTo("CustomerRepository"));
+            assertThat(events).extracting(e -> e.getString("method") + "=" + e.getLong("rows"))
+                    .containsExactly("save=1", "save=1", "findAllById=2", "findById=0");
+            assertThat(events).noneMatch(e -> e.getBoolean("failed"));
+            assertThat(events.get(0).getStackTrace()).isNotNull();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
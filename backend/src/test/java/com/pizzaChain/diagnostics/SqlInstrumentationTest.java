@@ -0,0 +1,134 @@
+package com.pizzaChain.diagnostics;
+
+import com.pizzaChain.customerProfile.model.Customer;
+import com.pizzaChain.customerProfile.repository.CustomerRepository;
+import com.pizzaChain.diagnostics.sql.ExplainSampler;
+import com.pizzaChain.diagnostics.sql.RequestStatementTracker;
+import com.pizzaChain.diagnostics.sql.SqlDiagnosticsProperties;
+import com.pizzaChain.diagnostics.sql.SqlInstrumentationConfig;
+import com.pizzaChain.diagnostics.sql.StatementStatistics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.UUID;
+
+import static com.pizzaChain.customerProfile.TestCustomers.customer;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The DataSource proxy and repository interceptor together: statements attributed to the
+ * repository method that ran them, slow statements kept with their bind parameters, and a
+ * SELECT repeated within one request flagged as a likely N+1.
+ */
+@DataJpaTest(properties = {
+        "diagnostics.sql.slow-threshold=0ms",
+        "diagnostics.sql.n-plus-one-threshold=5"
+})
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({RepositoryInstrumentationConfig.class, SqlInstrumentationConfig.class, StatementStatistics.class,
+        RequestStatementTracker.class, ExplainSampler.class})
+class SqlInstrumentationTest {
+
+    @TestConfiguration
+    @EnableConfigurationProperties(SqlDiagnosticsProperties.class)
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private StatementStatistics statistics;
+
+    @Autowired
+    private RequestStatementTracker tracker;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        statistics.reset();
+    }
+
+    @Test
+    void statementsAreAttributedToRepositoryMethods() {
+        long findByIdCalls = findByIdTimer().count();
+        Customer saved = customerRepository.saveAndFlush(customer("carol@example.com"));
+        UUID missing = UUID.randomUUID();
+        customerRepository.findById(missing);
+
+        StatementStatistics.StatementSummary insert = statistics.top(100).stream()
+                .filter(s -> s.type().equals("INSERT") && s.sql().contains("customers"))
+                .findFirst().orElseThrow();
+        assertThat(insert.calls()).isEqualTo(1);
+        assertThat(insert.rows()).isEqualTo(1);
+        assertThat(insert.callers()).containsExactly("CustomerRepository.saveAndFlush");
+
+        StatementStatistics.SlowStatement lookup = statistics.recentSlow().get(0);
+        assertThat(lookup.repositoryCall()).isEqualTo("CustomerRepository.findById");
+        assertThat(lookup.parameters()).containsExactly("1=" + missing);
+        // Values bound to redacted columns (password) are masked
+        assertThat(statistics.recentSlow()).anySatisfy(s -> assertThat(s.parameters())
+                .contains("5=carol@example.com", "10=***")
+                .doesNotContain("10=Secret123"));
+
+        assertThat(findByIdTimer().count()).isEqualTo(findByIdCalls + 1);
+        assertThat(meterRegistry.get("db.repository.rows")
+                .tags("repository", "CustomerRepository", "method", "saveAndFlush")
+                .summary().totalAmount()).isEqualTo(1);
+        assertThat(meterRegistry.get("db.statements").tags("type", "insert", "outcome", "success").timer().count())
+                .isGreaterThanOrEqualTo(1);
+        assertThat(saved.getId()).isNotNull();
+    }
+
+    @Test
+    void repeatedSelectWithinOneRequestIsFlagged() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/customers");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        HandlerMethod handler = new HandlerMethod(this, SqlInstrumentationTest.class.getDeclaredMethod("listCustomers"));
+
+        tracker.preHandle(request, response, handler);
+        for (int i = 0; i < 6; i++) {
+            customerRepository.findById(UUID.randomUUID());
+        }
+        tracker.afterCompletion(request, response, handler, null);
+
+        assertThat(meterRegistry.get("db.nplusone.suspected")
+                .tag("handler", "SqlInstrumentationTest.listCustomers").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("db.request.statements")
+                .tag("handler", "SqlInstrumentationTest.listCustomers").summary().totalAmount()).isEqualTo(6);
+        assertThat(statistics.top(1).get(0).nPlusOneRequests()).isEqualTo(1);
+        assertThat(statistics.top(1).get(0).calls()).isEqualTo(6);
+        assertThat(RequestStatementTracker.currentHandler()).isNull();
+    }
+
+    private Timer findByIdTimer() {
+        return meterRegistry.get("db.repository.calls")
+                .tags("repository", "CustomerRepository", "method", "findById", "outcome", "success")
+                .timer();
+    }
+
+    @SuppressWarnings("unused")
+    private void listCustomers() {
+    }
+}
@@ -0,0 +1,228 @@
+package com.pizzaChain.feedback;
+
+import com.pizzaChain.customerProfile.TestCustomers;
+import com.pizzaChain.customerProfile.exception.CustomerNotFoundException;
+import com.pizzaChain.customerProfile.model.Customer;
+import com.pizzaChain.customerProfile.repository.CustomerRepository;
+import com.pizzaChain.feedback.dto.FeedbackDTO;
+import com.pizzaChain.feedback.ingest.FeedbackIngestProperties;
+import com.pizzaChain.feedback.ingest.FeedbackIngestService;
+import com.pizzaChain.feedback.ingest.FeedbackQueueFullException;
+import com.pizzaChain.feedback.repository.FeedbackRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Write-behind feedback: accepted submissions reach the table on shutdown drain and after a
+ * crash (from the journal), and a full queue refuses new ones. Runs outside a test transaction
+ * because the writer commits on its own thread.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class FeedbackIngestServiceTest {
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private FeedbackRepository feedbackRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    private Path journalDir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        customer = customerRepository.save(TestCustomers.customer("ingest-" + UUID.randomUUID() + "@example.com"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM customer_feedback WHERE customer_id = ?", customer.getId());
+        customerRepository.deleteById(customer.getId());
+    }
+
+    @Test
+    void stopDrainsEverythingAcceptedInBatches() throws IOException {
+        // Small segments, so the writer also deletes segments while it goes
+        FeedbackIngestService service = service(10_000, DataSize.ofKilobytes(8));
+        service.start();
+
+        List<UUID> accepted = new ArrayList<>();
+        for (int i = 0; i < 1_050; i++) {
+            FeedbackDTO dto = service.submit(customer.getId(), "note " + i);
+            accepted.add(dto.getId());
+        }
+        service.stop();
+
+        assertThat(writtenIds()).containsExactlyInAnyOrderElementsOf(accepted);
+        assertThat(journalFiles()).isEmpty();
+        assertThat(meterRegistry.get("feedback.ingest.rows").tag("outcome", "written").counter().count()).isEqualTo(1_050);
+    }
+
+    @Test
+    void unknownCustomerIsRefusedBeforeQueueing() throws IOException {
+        FeedbackIngestService service = service(100, DataSize.ofMegabytes(1));
+        service.start();
+        try {
+            assertThatThrownBy(() -> service.submit(UUID.randomUUID(), "unknown customer"))
+                    .isInstanceOf(CustomerNotFoundException.class);
+        } finally {
+            service.stop();
+        }
+
+        assertThat(meterRegistry.get("feedback.ingest.submissions").tag("outcome", "accepted").counter().count()).isZero();
+        assertThat(journalFiles()).isEmpty();
+    }
+
+    @Test
+    void startReplaysJournalLeftByCrash() throws IOException {
+        UUID alreadyWritten = UUID.randomUUID();
+        UUID lost1 = UUID.randomUUID();
+        UUID lost2 = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO customer_feedback (id, customer_id, text, date) VALUES (?, ?, ?, ?)",
+                alreadyWritten, customer.getId(), "written before the crash", LocalDate.now());
+
+        // What a run that died mid-write leaves behind: two segments, the last line torn
+        Files.writeString(journalDir.resolve("00000000000000000001.journal"),
+                line(alreadyWritten, "written before the crash") + line(lost1, "lost, with a, comma"));
+        // ...and a submission whose customer was deleted before it was written
+        Files.writeString(journalDir.resolve("00000000000000000002.journal"),
+                line(lost2, "lost too") + line(UUID.randomUUID(), UUID.randomUUID(), "customer deleted")
+                        + lost2.toString().substring(0, 10));
+
+        FeedbackIngestService service = service(100, DataSize.ofMegabytes(1));
+        service.start();
+        service.stop();
+
+        assertThat(writtenIds()).containsExactlyInAnyOrder(alreadyWritten, lost1, lost2);
+        assertThat(jdbcTemplate.queryForObject("SELECT text FROM customer_feedback WHERE id = ?", String.class, lost1))
+                .isEqualTo("lost, with a, comma");
+        assertThat(journalFiles()).isEmpty();
+        // Rejected by the foreign key and dropped, without holding up the rest
+        assertThat(meterRegistry.get("feedback.ingest.rows").tag("outcome", "dropped").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void writerFailureStopsAcknowledgingSubmissions() throws Exception {
+        // A leftover "segment" that cannot be read kills replay
+        Files.createDirectory(journalDir.resolve("00000000000000000001.journal"));
+        FeedbackIngestService service = service(100, DataSize.ofMegabytes(1));
+        service.start();
+        try {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (service.health().getStatus() != Status.DOWN && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+
+            assertThat(service.health().getStatus()).isEqualTo(Status.DOWN);
+            assertThat(meterRegistry.get("feedback.ingest.writer.up").gauge().value()).isZero();
+            assertThatThrownBy(() -> service.submit(customer.getId(), "nobody will write this"))
+                    .isInstanceOf(FeedbackQueueFullException.class);
+        } finally {
+            service.stop();
+        }
+        assertThat(writtenIds()).isEmpty();
+    }
+
+    @Test
+    void fullQueueRefusesSubmissions() {
+        // A writer stuck on the database: nothing queued is released
+        CountDownLatch database = new CountDownLatch(1);
+        FeedbackRepository stuckRepository = mock(FeedbackRepository.class);
+        when(stuckRepository.findExistingIds(any())).thenAnswer(invocation -> {
+            database.await();
+            return List.of();
+        });
+        FeedbackIngestService service = new FeedbackIngestService(properties(3, DataSize.ofMegabytes(1)),
+                stuckRepository, customerRepository, mock(JdbcTemplate.class), transactionManager,
+                new SimpleMeterRegistry());
+        service.start();
+        try {
+            for (int i = 0; i < 3; i++) {
+                service.submit(customer.getId(), "note " + i);
+            }
+            assertThatThrownBy(() -> service.submit(customer.getId(), "one too many"))
+                    .isInstanceOf(FeedbackQueueFullException.class);
+        } finally {
+            database.countDown();
+            service.stop();
+        }
+        assertThatThrownBy(() -> service.submit(customer.getId(), "after shutdown"))
+                .isInstanceOf(FeedbackQueueFullException.class);
+    }
+
+    private FeedbackIngestService service(int queueCapacity, DataSize segmentSize) {
+        return new FeedbackIngestService(properties(queueCapacity, segmentSize),
+                feedbackRepository, customerRepository, jdbcTemplate, transactionManager, meterRegistry);
+    }
+
+    private FeedbackIngestProperties properties(int queueCapacity, DataSize segmentSize) {
+        return new FeedbackIngestProperties(true, queueCapacity, 100, Duration.ofSeconds(30),
+                new FeedbackIngestProperties.Journal(journalDir.toString(), true, segmentSize));
+    }
+
+    private List<UUID> writtenIds() {
+        return jdbcTemplate.queryForList("SELECT id FROM customer_feedback WHERE customer_id = ?",
+                UUID.class, customer.getId());
+    }
+
+    private List<Path> journalFiles() throws IOException {
+        try (Stream<Path> files = Files.list(journalDir)) {
+            return files.toList();
+        }
+    }
+
+    private String line(UUID id, String text) {
+        return line(id, customer.getId(), text);
+    }
+
+    private static String line(UUID id, UUID customerId, String text) {
+        return id + "," + customerId + "," + LocalDate.now() + ","
+                + Base64.getEncoder().encodeToString(text.getBytes(StandardCharsets.UTF_8)) + "\n";
+    }
+}
@@ -0,0 +1,113 @@
+package com.pizzaChain.feedback;
+
+import com.pizzaChain.customerProfile.dto.CursorPage;
+import com.pizzaChain.customerProfile.exception.InvalidCursorException;
+import com.pizzaChain.customerProfile.model.Customer;
+import com.pizzaChain.customerProfile.repository.CustomerRepository;
+import com.pizzaChain.feedback.dto.FeedbackDTO;
+import com.pizzaChain.feedback.model.CustomerFeedback;
+import com.pizzaChain.feedback.repository.FeedbackRepository;
+import com.pizzaChain.feedback.service.FeedbackService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static com.pizzaChain.customerProfile.TestCustomers.customer;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Keyset pages over a customer's feedback: newest first, ties on date broken by id,
+ * every entry exactly once, and nothing from other customers.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(FeedbackService.class)
+class FeedbackPaginationTest {
+
+    private static final int FEEDBACK_COUNT = 45;
+
+    @Autowired
+    private FeedbackService feedbackService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private FeedbackRepository feedbackRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private UUID customerId;
+
+    private final List<CustomerFeedback> saved = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Customer customer = customerRepository.save(customer("ann@example.com"));
+        Customer other = customerRepository.save(customer("bob@example.com"));
+        customerId = customer.getId();
+
+        // Three entries per day, so page boundaries fall inside runs of equal dates
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        for (int i = 0; i < FEEDBACK_COUNT; i++) {
+            saved.add(feedbackRepository.save(new CustomerFeedback(customer, "note " + i, start.plusDays(i / 3))));
+        }
+        feedbackRepository.save(new CustomerFeedback(other, "someone else", start));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void pagesCoverEveryEntryOnceNewestFirst() {
+        // Databases order uuid as unsigned bytes, i.e. by the hex string; UUID.compareTo is signed
+        List<UUID> expected = saved.stream()
+                .sorted(Comparator.comparing(CustomerFeedback::getDate)
+                        .thenComparing((CustomerFeedback f) -> f.getId().toString())
+                        .reversed())
+                .map(CustomerFeedback::getId)
+                .toList();
+
+        List<UUID> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPage<FeedbackDTO> page = feedbackService.getFeedbackForCustomer(customerId, cursor, 10);
+            assertThat(page.content()).hasSizeLessThanOrEqualTo(10);
+            page.content().forEach(f -> seen.add(f.getId()));
+            cursor = page.nextCursor();
+            assertThat(cursor != null).isEqualTo(page.hasNext());
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(5);
+        assertThat(seen).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void exactMultipleOfPageSizeEndsWithoutEmptyPage() {
+        CursorPage<FeedbackDTO> first = feedbackService.getFeedbackForCustomer(customerId, null, FEEDBACK_COUNT);
+        assertThat(first.content()).hasSize(FEEDBACK_COUNT);
+        assertThat(first.hasNext()).isFalse();
+        assertThat(first.nextCursor()).isNull();
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertThatThrownBy(() -> feedbackService.getFeedbackForCustomer(customerId, "not-a-cursor", 10))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+}
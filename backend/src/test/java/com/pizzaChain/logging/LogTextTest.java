@@ -0,0 +1,21 @@
+package com.pizzaChain.logging;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogTextTest {
+
+    @Test
+    void previewCutsLongPayloadsToOneLine() {
+        String reply = "Line one\nline two " + "x".repeat(500);
+
+        String preview = LogText.preview(reply).toString();
+
+        assertThat(preview).hasSize(LogText.MAX_LENGTH + "… (518 chars)".length())
+                .startsWith("Line one line two xx")
+                .endsWith("… (518 chars)")
+                .doesNotContain("\n");
+        assertThat(LogText.preview("short").toString()).isEqualTo("short");
+    }
+}
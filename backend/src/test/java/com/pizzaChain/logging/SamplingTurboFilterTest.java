@@ -0,0 +1,86 @@
+package com.pizzaChain.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import com.pizzaChain.diagnostics.sql.StatementStatistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SamplingTurboFilterTest {
+
+    private final LoggerContext context = new LoggerContext();
+    private SamplingTurboFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        context.getLogger(Logger.ROOT_LOGGER_NAME).setLevel(Level.INFO);
+        filter = new SamplingTurboFilter();
+        filter.setLoggers("com.pizzaChain.chatbot, " + StatementStatistics.SLOW_LOGGER);
+        filter.setPerSecond(3);
+        filter.setSampleEvery(5);
+        filter.start();
+    }
+
+    @Test
+    void passesBudgetThenSamplesPerLogger() {
+        Logger chat = context.getLogger("com.pizzaChain.chatbot.service.ChatService");
+        Logger other = context.getLogger("com.pizzaChain.chatbot.controller.ChatController");
+
+        int passed = 0;
+        for (int i = 0; i < 23; i++) {
+            if (decide(chat, Level.INFO) == FilterReply.NEUTRAL) {
+                passed++;
+            }
+        }
+        // 3 within the budget, then events 8, 13, 18 and 23. Unless the second rolled over meanwhile,
+        // which only lets more through
+        assertThat(passed).isGreaterThanOrEqualTo(7);
+        assertThat(filter.getDropped()).isEqualTo(23 - passed);
+        // Each logger has its own budget
+        assertThat(decide(other, Level.INFO)).isEqualTo(FilterReply.NEUTRAL);
+    }
+
+    @Test
+    void warningsAndUnsampledLoggersAlwaysPass() {
+        Logger chat = context.getLogger("com.pizzaChain.chatbot.service.ChatService");
+        Logger customers = context.getLogger("com.pizzaChain.customerProfile.service.CustomerService");
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(decide(chat, Level.WARN)).isEqualTo(FilterReply.NEUTRAL);
+            assertThat(decide(customers, Level.INFO)).isEqualTo(FilterReply.NEUTRAL);
+        }
+        assertThat(filter.getDropped()).isZero();
+    }
+
+    @Test
+    void slowStatementLogIsSampledDuringADatabaseSlowdown() {
+        // Logged at INFO precisely so that this filter applies; WARN would always pass
+        Logger slow = context.getLogger(StatementStatistics.SLOW_LOGGER);
+
+        for (int i = 0; i < 100; i++) {
+            decide(slow, Level.INFO);
+        }
+
+        assertThat(filter.getDropped()).isGreaterThan(0);
+    }
+
+    @Test
+    void disabledLevelsAndEnabledChecksDoNotUseTheBudget() {
+        Logger chat = context.getLogger("com.pizzaChain.chatbot.service.ChatService");
+        for (int i = 0; i < 100; i++) {
+            filter.decide(null, chat, Level.INFO, null, null, null);
+            decide(chat, Level.DEBUG);
+        }
+
+        assertThat(decide(chat, Level.INFO)).isEqualTo(FilterReply.NEUTRAL);
+        assertThat(filter.getDropped()).isZero();
+    }
+
+    private FilterReply decide(Logger logger, Level level) {
+        return filter.decide(null, logger, level, "Processing chat request: {}", new Object[]{"hi"}, null);
+    }
+}
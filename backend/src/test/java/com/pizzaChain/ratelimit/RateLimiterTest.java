@@ -0,0 +1,54 @@
+package com.pizzaChain.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTest {
+
+    @Test
+    void bucketAllowsBurstThenRefillsAtConfiguredRate() {
+        long interval = TimeUnit.SECONDS.toNanos(3);
+        long start = 1_000L;
+        GcraBucket bucket = new GcraBucket(start);
+
+        assertThat(bucket.tryAcquire(start, interval, 2 * interval)).isZero();
+        assertThat(bucket.tryAcquire(start, interval, 2 * interval)).isZero();
+        assertThat(bucket.tryAcquire(start, interval, 2 * interval)).isEqualTo(interval);
+
+        assertThat(bucket.tryAcquire(start + interval, interval, 2 * interval)).isZero();
+    }
+
+    @Test
+    void limitsAreTrackedPerClientAndEndpoint() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RateLimiter limiter = new RateLimiter(new RateLimitProperties(true, 100, Duration.ofMinutes(1),
+                Map.of("chat", new RateLimitProperties.Limit(1, Duration.ofSeconds(3)))), meterRegistry);
+
+        assertThat(limiter.tryAcquire("chat", "10.0.0.1")).isZero();
+        assertThat(limiter.tryAcquire("chat", "10.0.0.1")).isPositive();
+        assertThat(limiter.tryAcquire("chat", "10.0.0.2")).isZero();
+        assertThat(limiter.tryAcquire("feedback", "10.0.0.1")).isZero();
+
+        assertThat(meterRegistry.get("ratelimit.requests").tags("endpoint", "chat", "outcome", "allowed").counter().count())
+                .isEqualTo(2);
+        assertThat(meterRegistry.get("ratelimit.requests").tags("endpoint", "chat", "outcome", "limited").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void clientKeyIgnoresClientSuppliedForwardedFor() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/chat");
+        request.setRemoteAddr("203.0.113.7");
+        request.addHeader("X-Forwarded-For", "198.51.100.1, 203.0.113.7");
+
+        assertThat(ClientKeyResolver.resolve(request)).isEqualTo("203.0.113.7");
+    }
+}
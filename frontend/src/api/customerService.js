@@ -144,6 +144,8 @@ export const getAllCustomers = (page = 0, size = 10, sort = 'firstName,asc', sea
     url.searchParams.append('page', page);
     url.searchParams.append('size', size);
     url.searchParams.append('sort', sort);
+    // Offset paging with totals; the default search response is keyset-paginated
+    url.searchParams.append('withTotal', 'true');
     return handleRequest(url.toString());
   } else {
     // Use the regular endpoint when no search term
@@ -22,8 +22,11 @@ const handleRequest = async (url, options = {}) => {
   }
 };
 
-export const getFeedbackForCustomer = (customerId) => {
-    return handleRequest(`${FEEDBACK_ENDPOINT}/${customerId}`);
+// One page, newest first: { content, size, hasNext, nextCursor }; pass nextCursor back for the next page
+export const getFeedbackForCustomer = (customerId, cursor = null, size = 20) => {
+    const params = new URLSearchParams({ size: String(size) });
+    if (cursor) params.append('cursor', cursor);
+    return handleRequest(`${FEEDBACK_ENDPOINT}/${customerId}?${params.toString()}`);
 };
 
 // FIX: Use URLSearchParams to send data as a request parameter
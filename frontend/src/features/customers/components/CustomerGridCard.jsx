@@ -25,7 +25,7 @@ export const CustomerGridCard = ({ customer, onDeleteClick, onFeedbackClick }) =
                 <div className="flex items-start gap-4">
                     <img
                         className="h-16 w-16 rounded-full object-cover border-2 border-orange-200"
-                        src={customer.photoPath ? `${API_BASE_URL_STATIC}${customer.photoPath}` : `https://placehold.co/64x64/fed7aa/f97316?text=${customer.firstName.charAt(0)}`}
+                        src={customer.photoAvatarPath ? `${API_BASE_URL_STATIC}${customer.photoAvatarPath}` : `https://placehold.co/64x64/fed7aa/f97316?text=${customer.firstName.charAt(0)}`}
                         alt={`${customer.firstName}'s profile`}
                         loading="lazy"
                     />
@@ -39,7 +39,7 @@ export const CustomerTable = ({ customers, onSort, sortConfig, onDeleteClick, on
                                 <div className="flex-shrink-0 h-12 w-12">
                                     <img
                                         className="h-12 w-12 rounded-full object-cover border-2 border-gray-200"
-                                        src={customer.photoPath ? `${API_BASE_URL_STATIC}${customer.photoPath}` : `https://placehold.co/48x48/f97316/white?text=${customer.firstName.charAt(0)}`}
+                                        src={customer.photoAvatarPath ? `${API_BASE_URL_STATIC}${customer.photoAvatarPath}` : `https://placehold.co/48x48/f97316/white?text=${customer.firstName.charAt(0)}`}
                                         alt={`${customer.firstName}'s profile`}
                                         loading="lazy"
                                     />
@@ -21,22 +21,45 @@ const FeedbackModal = ({ customer, isOpen, onClose }) => {
     const [editingId, setEditingId] = useState(null);
     const [editingText, setEditingText] = useState("");
     const [deletingId, setDeletingId] = useState(null);
+    const [nextCursor, setNextCursor] = useState(null);
+    const [isLoadingMore, setIsLoadingMore] = useState(false);
 
     const loadFeedback = useCallback(async () => {
         if (!customer) return;
         setIsLoading(true);
         setError(null);
         try {
-            const data = await getFeedbackForCustomer(customer.id);
-            setFeedbackList(data);
+            const page = await getFeedbackForCustomer(customer.id);
+            setFeedbackList(page.content);
+            setNextCursor(page.hasNext ? page.nextCursor : null);
         } catch (err) {
             setError(err.message);
             setFeedbackList([]);
+            setNextCursor(null);
         } finally {
             setIsLoading(false);
         }
     }, [customer]);
 
+    const loadMore = async () => {
+        if (!nextCursor) return;
+        setIsLoadingMore(true);
+        setError(null);
+        try {
+            const page = await getFeedbackForCustomer(customer.id, nextCursor);
+            // Skip entries already shown (e.g. one added in this session)
+            setFeedbackList(prev => {
+                const seen = new Set(prev.map(item => item.id));
+                return [...prev, ...page.content.filter(item => !seen.has(item.id))];
+            });
+            setNextCursor(page.hasNext ? page.nextCursor : null);
+        } catch (err) {
+            setError(err.message);
+        } finally {
+            setIsLoadingMore(false);
+        }
+    };
+
     useEffect(() => {
         if (isOpen) {
             loadFeedback();
@@ -133,7 +156,8 @@ const FeedbackModal = ({ customer, isOpen, onClose }) => {
                     {isLoading ? (
                         <div className="text-center text-gray-500 py-10">Loading...</div>
                     ) : feedbackList.length > 0 ? (
-                        feedbackList.map(item => (
+                        <>
+                        {feedbackList.map(item => (
                             <div key={item.id} className="bg-orange-50 border-l-4 border-orange-400 rounded-r-lg">
                                 {editingId === item.id ? (
                                     <div className="p-3 space-y-3">
@@ -167,7 +191,15 @@ const FeedbackModal = ({ customer, isOpen, onClose }) => {
                                     </div>
                                 )}
                             </div>
-                        ))
+                        ))}
+                        {nextCursor && (
+                            <div className="text-center">
+                                <button onClick={loadMore} disabled={isLoadingMore} className="px-4 py-1 text-sm text-orange-600 hover:text-orange-700 disabled:opacity-50">
+                                    {isLoadingMore ? 'Loading...' : 'Load more'}
+                                </button>
+                            </div>
+                        )}
+                        </>
                     ) : (
                         <div className="text-center text-gray-500 py-10">No feedback recorded.</div>
                     )}